@@ -2,12 +2,14 @@ package com.taxsiito.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal de la aplicación TaxSIIto Backend.
  * Esta clase inicia el servidor Spring Boot.
  */
 @SpringBootApplication
+@EnableScheduling
 public class TaxSiitoApplication {
 
     public static void main(String[] args) {
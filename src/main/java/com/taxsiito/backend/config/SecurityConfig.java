@@ -25,6 +25,6 @@ public class SecurityConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
                 .allowCredentials(true)
-                .exposedHeaders("Content-Type");
+                .exposedHeaders("Content-Type", "Idempotent-Replayed", "ETag");
     }
 }
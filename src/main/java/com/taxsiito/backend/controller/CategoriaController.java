@@ -2,7 +2,9 @@ package com.taxsiito.backend.controller;
 
 import com.taxsiito.backend.dto.CategoriaDTO;
 import com.taxsiito.backend.model.Categoria;
+import com.taxsiito.backend.model.enums.VentanaRanking;
 import com.taxsiito.backend.service.CategoriaService;
+import com.taxsiito.backend.service.RankingVentasService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -23,6 +25,7 @@ import java.util.Map;
 public class CategoriaController {
 
     private final CategoriaService categoriaService;
+    private final RankingVentasService rankingService;
 
     /**
      * Obtiene todas las categorías activas.
@@ -42,6 +45,23 @@ public class CategoriaController {
         return ResponseEntity.ok(categoriaService.obtenerTodas());
     }
 
+    /**
+     * Ranking de categorías más vendidos, desde memoria.
+     */
+    @GetMapping("/mas-vendidas")
+    @Operation(summary = "Categorías más vendidas",
+               description = "Top de categorías por unidades vendidas (órdenes no canceladas) en TOTAL, DIAS_7 o DIAS_30")
+    public ResponseEntity<?> obtenerMasVendidas(@RequestParam(defaultValue = "TOTAL") String ventana,
+                                      @RequestParam(defaultValue = "10") int limite) {
+        VentanaRanking ventanaEnum;
+        try {
+            ventanaEnum = VentanaRanking.valueOf(ventana.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Ventana inválida (TOTAL, DIAS_7 o DIAS_30)"));
+        }
+        return ResponseEntity.ok(rankingService.obtenerCategorias(ventanaEnum, Math.max(1, Math.min(limite, 100))));
+    }
+
     /**
      * Obtiene una categoría por ID.
      */
@@ -0,0 +1,95 @@
+package com.taxsiito.backend.controller;
+
+import com.taxsiito.backend.dto.FiltroOrdenes;
+import com.taxsiito.backend.model.enums.Rol;
+import com.taxsiito.backend.service.ExportacionService;
+import com.taxsiito.backend.util.EscritorFilas.Formato;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.Map;
+
+/**
+ * Controlador REST para exportaciones masivas en CSV o NDJSON.
+ * Las filas se escriben a medida que se leen de la base de datos.
+ */
+@RestController
+@RequestMapping("/api/exportar")
+@RequiredArgsConstructor
+@Tag(name = "Exportación", description = "Exportación masiva de órdenes, productos y usuarios")
+public class ExportacionController {
+
+    private final ExportacionService exportacionService;
+
+    /**
+     * Exporta órdenes.
+     */
+    @GetMapping("/ordenes")
+    @Operation(summary = "Exportar órdenes", description = "Exporta órdenes filtradas en CSV o NDJSON")
+    public ResponseEntity<?> exportarOrdenes(FiltroOrdenes filtro,
+                                             @RequestParam(defaultValue = "csv") String formato) {
+        Formato formatoEnum = parsearFormato(formato);
+        if (formatoEnum == null) return formatoInvalido();
+        return respuesta("ordenes", formatoEnum,
+                salida -> exportacionService.exportarOrdenes(filtro, formatoEnum, salida));
+    }
+
+    /**
+     * Exporta productos.
+     */
+    @GetMapping("/productos")
+    @Operation(summary = "Exportar productos", description = "Exporta productos en CSV o NDJSON")
+    public ResponseEntity<?> exportarProductos(@RequestParam(required = false) Boolean activo,
+                                               @RequestParam(required = false) Long categoriaId,
+                                               @RequestParam(defaultValue = "csv") String formato) {
+        Formato formatoEnum = parsearFormato(formato);
+        if (formatoEnum == null) return formatoInvalido();
+        return respuesta("productos", formatoEnum,
+                salida -> exportacionService.exportarProductos(activo, categoriaId, formatoEnum, salida));
+    }
+
+    /**
+     * Exporta usuarios.
+     */
+    @GetMapping("/usuarios")
+    @Operation(summary = "Exportar usuarios", description = "Exporta usuarios en CSV o NDJSON")
+    public ResponseEntity<?> exportarUsuarios(@RequestParam(required = false) String rol,
+                                              @RequestParam(required = false) Boolean activo,
+                                              @RequestParam(defaultValue = "csv") String formato) {
+        Formato formatoEnum = parsearFormato(formato);
+        if (formatoEnum == null) return formatoInvalido();
+        Rol rolEnum;
+        try {
+            rolEnum = rol != null ? Rol.valueOf(rol.toUpperCase()) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Rol inválido"));
+        }
+        return respuesta("usuarios", formatoEnum,
+                salida -> exportacionService.exportarUsuarios(rolEnum, activo, formatoEnum, salida));
+    }
+
+    private ResponseEntity<StreamingResponseBody> respuesta(String nombre, Formato formato, StreamingResponseBody cuerpo) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + nombre + "." + formato.getExtension() + "\"")
+                .body(cuerpo);
+    }
+
+    private static Formato parsearFormato(String formato) {
+        try {
+            return Formato.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<?> formatoInvalido() {
+        return ResponseEntity.badRequest().body(Map.of("error", "Formato inválido (csv o ndjson)"));
+    }
+}
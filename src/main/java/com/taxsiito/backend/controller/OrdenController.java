@@ -1,15 +1,25 @@
 package com.taxsiito.backend.controller;
 
+import com.taxsiito.backend.dto.FiltroOrdenes;
 import com.taxsiito.backend.dto.OrdenDTO;
 import com.taxsiito.backend.model.enums.EstadoOrden;
+import com.taxsiito.backend.model.enums.GranularidadVenta;
+import com.taxsiito.backend.service.ArchivadorOrdenes;
+import com.taxsiito.backend.service.EstadisticasOrdenesService;
+import com.taxsiito.backend.service.HistorialOrdenesCache;
+import com.taxsiito.backend.service.IdempotenciaService;
 import com.taxsiito.backend.service.OrdenService;
 import com.taxsiito.backend.service.OrdenService.ItemOrdenRequest;
+import com.taxsiito.backend.service.VentasAgregadasService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -22,15 +32,30 @@ import java.util.Map;
 @Tag(name = "Órdenes", description = "Gestión de pedidos y órdenes de compra")
 public class OrdenController {
 
+    // Segundos que el cliente espera antes de reintentar una solicitud idempotente aún en curso
+    private static final String SEGUNDOS_REINTENTO = "1";
+
     private final OrdenService ordenService;
+    private final EstadisticasOrdenesService estadisticasService;
+    private final VentasAgregadasService ventasService;
+    private final IdempotenciaService idempotenciaService;
+    private final HistorialOrdenesCache historialCache;
+    private final ArchivadorOrdenes archivadorOrdenes;
 
     /**
-     * Obtiene todas las órdenes.
+     * Obtiene una página de órdenes con filtros combinables.
      */
     @GetMapping
-    @Operation(summary = "Listar órdenes", description = "Obtiene todas las órdenes")
-    public ResponseEntity<List<OrdenDTO>> obtenerTodas() {
-        return ResponseEntity.ok(ordenService.obtenerTodas());
+    @Operation(summary = "Listar órdenes",
+               description = "Obtiene órdenes paginadas por cursor, filtrables por estado, fechas, región y total")
+    public ResponseEntity<?> obtenerTodas(FiltroOrdenes filtro,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer tamanio) {
+        try {
+            return ResponseEntity.ok(ordenService.obtenerTodas(filtro, cursor, tamanio));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -59,41 +84,83 @@ public class OrdenController {
      * Obtiene las órdenes de un usuario.
      */
     @GetMapping("/usuario/{usuarioId}")
-    @Operation(summary = "Órdenes por usuario", description = "Obtiene las órdenes de un usuario")
-    public ResponseEntity<List<OrdenDTO>> obtenerPorUsuario(@PathVariable Long usuarioId) {
-        return ResponseEntity.ok(ordenService.obtenerPorUsuario(usuarioId));
+    @Operation(summary = "Órdenes por usuario", description = "Obtiene las órdenes de un usuario, paginadas por cursor")
+    public ResponseEntity<?> obtenerPorUsuario(@PathVariable Long usuarioId,
+                                               FiltroOrdenes filtro,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer tamanio) {
+        try {
+            return ResponseEntity.ok(ordenService.obtenerPorUsuario(usuarioId, filtro, cursor, tamanio));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
      * Obtiene órdenes por estado.
      */
     @GetMapping("/estado/{estado}")
-    @Operation(summary = "Órdenes por estado", description = "Obtiene órdenes filtradas por estado")
-    public ResponseEntity<List<OrdenDTO>> obtenerPorEstado(@PathVariable String estado) {
+    @Operation(summary = "Órdenes por estado", description = "Obtiene órdenes filtradas por estado, paginadas por cursor")
+    public ResponseEntity<?> obtenerPorEstado(@PathVariable String estado,
+                                              FiltroOrdenes filtro,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer tamanio) {
+        EstadoOrden estadoEnum;
         try {
-            EstadoOrden estadoEnum = EstadoOrden.valueOf(estado.toUpperCase());
-            return ResponseEntity.ok(ordenService.obtenerPorEstado(estadoEnum));
+            estadoEnum = EstadoOrden.valueOf(estado.toUpperCase());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
+        try {
+            return ResponseEntity.ok(ordenService.obtenerPorEstado(estadoEnum, filtro, cursor, tamanio));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
      * Crea una nueva orden.
+     * Con la cabecera Idempotency-Key, un reintento con la misma clave devuelve la orden ya creada;
+     * si la solicitud original sigue en curso responde 409 con Retry-After.
      */
     @PostMapping
-    @Operation(summary = "Crear orden", description = "Crea una nueva orden de compra")
-    public ResponseEntity<?> crear(@RequestBody CrearOrdenRequest request) {
+    @Operation(summary = "Crear orden",
+               description = "Crea una nueva orden de compra; acepta la cabecera Idempotency-Key para reintentos seguros")
+    public ResponseEntity<?> crear(@RequestBody CrearOrdenRequest request,
+                                   @RequestHeader(value = "Idempotency-Key", required = false) String claveIdempotencia) {
         try {
-            OrdenDTO creada = ordenService.crear(
-                    request.getUsuarioId(),
-                    request.getItems(),
-                    request.getDireccionEnvio(),
-                    request.getRegionEnvio(),
-                    request.getComunaEnvio(),
-                    request.getNotas()
-            );
-            return ResponseEntity.status(HttpStatus.CREATED).body(creada);
+            if (claveIdempotencia == null) {
+                OrdenDTO creada = ordenService.crear(
+                        request.getUsuarioId(),
+                        request.getItems(),
+                        request.getDireccionEnvio(),
+                        request.getRegionEnvio(),
+                        request.getComunaEnvio(),
+                        request.getNotas()
+                );
+                return ResponseEntity.status(HttpStatus.CREATED).body(creada);
+            }
+
+            String huella = idempotenciaService.calcularHuella(request);
+            IdempotenciaService.Resultado resultado = idempotenciaService.ejecutar(
+                    request.getUsuarioId(), claveIdempotencia, huella,
+                    () -> ordenService.crear(
+                            request.getUsuarioId(),
+                            request.getItems(),
+                            request.getDireccionEnvio(),
+                            request.getRegionEnvio(),
+                            request.getComunaEnvio(),
+                            request.getNotas(),
+                            claveIdempotencia,
+                            huella
+                    ));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header("Idempotent-Replayed", String.valueOf(resultado.isRepetido()))
+                    .body(resultado.getOrden());
+        } catch (IdempotenciaService.SolicitudEnProcesoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, SEGUNDOS_REINTENTO)
+                    .body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -116,6 +183,26 @@ public class OrdenController {
         }
     }
 
+    /**
+     * Actualiza el estado de varias órdenes.
+     */
+    @PatchMapping("/estado")
+    @Operation(summary = "Actualizar estado masivo",
+               description = "Cambia el estado de varias órdenes en una transacción y devuelve el resultado por orden")
+    public ResponseEntity<?> actualizarEstados(@RequestBody CambioEstadoMasivoRequest request) {
+        EstadoOrden estadoEnum;
+        try {
+            estadoEnum = EstadoOrden.valueOf(request.getEstado().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Estado inválido"));
+        }
+        try {
+            return ResponseEntity.ok(ordenService.actualizarEstados(request.getIds(), estadoEnum));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Obtiene las últimas órdenes.
      */
@@ -131,17 +218,79 @@ public class OrdenController {
     @GetMapping("/estadisticas")
     @Operation(summary = "Estadísticas", description = "Obtiene estadísticas de órdenes")
     public ResponseEntity<?> obtenerEstadisticas() {
+        // Se responde desde contadores en memoria, sin consultar la base de datos
+        Map<EstadoOrden, Long> conteos = estadisticasService.obtener();
         Map<String, Long> estadisticas = Map.of(
-                "pendientes", ordenService.contarPorEstado(EstadoOrden.PENDIENTE),
-                "pagadas", ordenService.contarPorEstado(EstadoOrden.PAGADA),
-                "enPreparacion", ordenService.contarPorEstado(EstadoOrden.EN_PREPARACION),
-                "enviadas", ordenService.contarPorEstado(EstadoOrden.ENVIADA),
-                "entregadas", ordenService.contarPorEstado(EstadoOrden.ENTREGADA),
-                "canceladas", ordenService.contarPorEstado(EstadoOrden.CANCELADA)
+                "pendientes", conteos.get(EstadoOrden.PENDIENTE),
+                "pagadas", conteos.get(EstadoOrden.PAGADA),
+                "enPreparacion", conteos.get(EstadoOrden.EN_PREPARACION),
+                "enviadas", conteos.get(EstadoOrden.ENVIADA),
+                "entregadas", conteos.get(EstadoOrden.ENTREGADA),
+                "canceladas", conteos.get(EstadoOrden.CANCELADA)
         );
         return ResponseEntity.ok(estadisticas);
     }
 
+    /**
+     * Archiva de inmediato las órdenes terminadas antiguas.
+     */
+    @PostMapping("/archivar")
+    @Operation(summary = "Archivar órdenes",
+               description = "Mueve las órdenes entregadas y canceladas antiguas a las tablas de archivo")
+    public ResponseEntity<?> archivar() {
+        int ordenes = archivadorOrdenes.archivar();
+        return ResponseEntity.ok(Map.of("mensaje", "Órdenes archivadas correctamente", "ordenes", ordenes));
+    }
+
+    /**
+     * Métricas de la cache del historial de órdenes por usuario.
+     */
+    @GetMapping("/historial/cache")
+    @Operation(summary = "Cache del historial",
+               description = "Aciertos, fallos, evicciones e invalidaciones de la cache de la primera página por usuario")
+    public ResponseEntity<Map<String, Long>> obtenerEstadisticasCache() {
+        return ResponseEntity.ok(historialCache.obtenerEstadisticas());
+    }
+
+    /**
+     * Total de ventas en un rango de fechas.
+     */
+    @GetMapping("/ventas")
+    @Operation(summary = "Total de ventas",
+               description = "Suma las órdenes pagadas creadas en el rango (hora de Santiago, resolución de una hora)")
+    public ResponseEntity<?> obtenerTotalVentas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        return ResponseEntity.ok(Map.of("total", ordenService.sumarVentas(desde, hasta)));
+    }
+
+    /**
+     * Serie temporal de ventas por hora o por día.
+     */
+    @GetMapping("/ventas/serie")
+    @Operation(summary = "Serie de ventas", description = "Obtiene las ventas agregadas por hora o por día")
+    public ResponseEntity<?> obtenerSerieVentas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(defaultValue = "DIA") String granularidad) {
+        try {
+            GranularidadVenta granularidadEnum = GranularidadVenta.valueOf(granularidad.toUpperCase());
+            return ResponseEntity.ok(ventasService.obtenerSerie(desde, hasta, granularidadEnum));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Granularidad inválida"));
+        }
+    }
+
+    /**
+     * Reconstruye las ventas agregadas desde las órdenes existentes.
+     */
+    @PostMapping("/ventas/reconstruir")
+    @Operation(summary = "Reconstruir ventas", description = "Recalcula los buckets de ventas desde las órdenes pagadas")
+    public ResponseEntity<?> reconstruirVentas() {
+        int ordenes = ventasService.reconstruir();
+        return ResponseEntity.ok(Map.of("mensaje", "Ventas reconstruidas correctamente", "ordenes", ordenes));
+    }
+
     /**
      * Clase interna para recibir datos de creación de orden.
      */
@@ -156,4 +305,15 @@ public class OrdenController {
         private String comunaEnvio;
         private String notas;
     }
+
+    /**
+     * Clase interna para recibir un cambio de estado masivo.
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class CambioEstadoMasivoRequest {
+        private List<Long> ids;
+        private String estado;
+    }
 }
@@ -1,5 +1,6 @@
 package com.taxsiito.backend.controller;
 
+import com.taxsiito.backend.dto.BusquedaFaqDTO;
 import com.taxsiito.backend.dto.PreguntaFrecuenteDTO;
 import com.taxsiito.backend.model.PreguntaFrecuente;
 import com.taxsiito.backend.service.PreguntaFrecuenteService;
@@ -63,12 +64,15 @@ public class PreguntaFrecuenteController {
     }
 
     /**
-     * Busca preguntas por texto.
+     * Busca preguntas por relevancia, con sugerencias si la consulta tiene errores de tipeo.
      */
     @GetMapping("/buscar")
-    @Operation(summary = "Buscar FAQs", description = "Busca preguntas que contengan el texto")
-    public ResponseEntity<List<PreguntaFrecuenteDTO>> buscar(@RequestParam String texto) {
-        return ResponseEntity.ok(preguntaService.buscar(texto));
+    @Operation(summary = "Buscar FAQs",
+               description = "Preguntas más relevantes para el texto (BM25 sobre pregunta, respuesta y categoría, sin distinguir tildes); "
+                       + "corrige errores de tipeo y los sugiere en quisoDecir")
+    public ResponseEntity<BusquedaFaqDTO> buscar(@RequestParam String texto,
+                                                @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(preguntaService.buscar(texto, Math.max(1, Math.min(limite, 50))));
     }
 
     /**
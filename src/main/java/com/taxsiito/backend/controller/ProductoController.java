@@ -1,17 +1,32 @@
 package com.taxsiito.backend.controller;
 
+import com.taxsiito.backend.dto.FiltroProductos;
 import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.dto.RechazoStockDTO;
+import com.taxsiito.backend.dto.SugerenciaProductoDTO;
 import com.taxsiito.backend.model.Producto;
+import com.taxsiito.backend.model.enums.VentanaRanking;
+import com.taxsiito.backend.service.CatalogoService;
+import com.taxsiito.backend.service.ImportacionProductosService;
 import com.taxsiito.backend.service.ProductoService;
+import com.taxsiito.backend.service.RankingVentasService;
+import com.taxsiito.backend.util.EscritorFilas.Formato;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Controlador REST para gestión de productos.
@@ -23,14 +38,32 @@ import java.util.Map;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final ImportacionProductosService importacionService;
+    private final RankingVentasService rankingService;
 
     /**
-     * Obtiene todos los productos activos.
+     * Obtiene los productos activos. Sin parámetros devuelve el catálogo completo;
+     * con paginación, filtros u orden devuelve una página calculada en la base de datos.
      */
     @GetMapping
-    @Operation(summary = "Listar productos", description = "Obtiene todos los productos activos")
-    public ResponseEntity<List<ProductoDTO>> obtenerActivos() {
-        return ResponseEntity.ok(productoService.obtenerActivos());
+    @Operation(summary = "Listar productos",
+               description = "Sin parámetros obtiene todos los productos activos (304 si If-None-Match coincide con la " +
+                             "versión del catálogo). Con tamanio, cursor, orden (precio, nombre, fechaCreacion), " +
+                             "direccion o filtros (categoriaId, precioMin, precioMax, conStock, stockBajo) devuelve " +
+                             "una página por cursor con conteos por categoría")
+    public ResponseEntity<?> obtenerActivos(
+            FiltroProductos filtro,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanio,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String version) {
+        if (cursor == null && tamanio == null && esFiltroVacio(filtro)) {
+            return conVersionCatalogo(version, CatalogoService.Instantanea::getActivos);
+        }
+        try {
+            return ResponseEntity.ok(productoService.listar(filtro, cursor, tamanio));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -42,6 +75,23 @@ public class ProductoController {
         return ResponseEntity.ok(productoService.obtenerTodos());
     }
 
+    /**
+     * Ranking de productos más vendidos, desde memoria.
+     */
+    @GetMapping("/mas-vendidos")
+    @Operation(summary = "Productos más vendidos",
+               description = "Top de productos por unidades vendidas (órdenes no canceladas) en TOTAL, DIAS_7 o DIAS_30")
+    public ResponseEntity<?> obtenerMasVendidos(@RequestParam(defaultValue = "TOTAL") String ventana,
+                                      @RequestParam(defaultValue = "10") int limite) {
+        VentanaRanking ventanaEnum;
+        try {
+            ventanaEnum = VentanaRanking.valueOf(ventana.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Ventana inválida (TOTAL, DIAS_7 o DIAS_30)"));
+        }
+        return ResponseEntity.ok(rankingService.obtenerProductos(ventanaEnum, Math.max(1, Math.min(limite, 100))));
+    }
+
     /**
      * Obtiene un producto por ID.
      */
@@ -58,9 +108,17 @@ public class ProductoController {
      */
     @GetMapping("/codigo/{codigo}")
     @Operation(summary = "Producto por código", description = "Obtiene un producto por su código")
-    public ResponseEntity<?> obtenerPorCodigo(@PathVariable String codigo) {
-        return productoService.obtenerPorCodigo(codigo)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<?> obtenerPorCodigo(@PathVariable String codigo,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String version) {
+        CatalogoService.Instantanea catalogo = productoService.obtenerCatalogo();
+        String etag = etagCatalogo(catalogo);
+        if (etag.equals(version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        // Los productos inactivos no están en el catálogo y se buscan en la base de datos
+        Optional<ProductoDTO> producto = catalogo.obtenerPorCodigo(codigo);
+        return (producto.isPresent() ? producto : productoService.obtenerPorCodigo(codigo))
+                .<ResponseEntity<?>>map(encontrado -> ResponseEntity.ok().eTag(etag).body(encontrado))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -88,6 +146,28 @@ public class ProductoController {
         }
     }
 
+    /**
+     * Importa productos en masa desde el cuerpo de la solicitud.
+     */
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson", "text/plain",
+                                                  "application/octet-stream"})
+    @Operation(summary = "Importar productos",
+               description = "Crea o actualiza (por código) productos desde un CSV con cabecera o un NDJSON. " +
+                             "Las filas con error se informan sin detener la importación")
+    public ResponseEntity<?> importar(@RequestParam(defaultValue = "csv") String formato, HttpServletRequest request) {
+        Formato formatoEnum;
+        try {
+            formatoEnum = Formato.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Formato inválido (csv o ndjson)"));
+        }
+        try {
+            return ResponseEntity.ok(importacionService.importar(request.getInputStream(), formatoEnum));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No se pudo abrir el archivo: " + e.getMessage()));
+        }
+    }
+
     /**
      * Actualiza un producto.
      */
@@ -145,17 +225,43 @@ public class ProductoController {
      */
     @GetMapping("/categoria/{categoriaId}")
     @Operation(summary = "Productos por categoría", description = "Obtiene productos de una categoría")
-    public ResponseEntity<List<ProductoDTO>> obtenerPorCategoria(@PathVariable Long categoriaId) {
-        return ResponseEntity.ok(productoService.obtenerPorCategoria(categoriaId));
+    public ResponseEntity<List<ProductoDTO>> obtenerPorCategoria(
+            @PathVariable Long categoriaId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String version) {
+        return conVersionCatalogo(version, catalogo -> catalogo.obtenerPorCategoria(categoriaId));
     }
 
     /**
-     * Busca productos por nombre.
+     * Busca productos por código, nombre o descripción.
      */
     @GetMapping("/buscar")
-    @Operation(summary = "Buscar productos", description = "Busca productos por nombre")
-    public ResponseEntity<List<ProductoDTO>> buscar(@RequestParam String nombre) {
-        return ResponseEntity.ok(productoService.buscar(nombre));
+    @Operation(summary = "Buscar productos",
+               description = "Busca productos activos por código, nombre o descripción (sin distinguir tildes), " +
+                             "ordenados por relevancia y paginados por cursor. Acepta q o nombre")
+    public ResponseEntity<?> buscar(@RequestParam(required = false) String q,
+                                    @RequestParam(required = false) String nombre,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer tamanio) {
+        String texto = q != null ? q : nombre;
+        if (texto == null || texto.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Debe indicar el texto a buscar"));
+        }
+        try {
+            return ResponseEntity.ok(productoService.buscar(texto, cursor, tamanio));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Sugerencias para el buscador mientras se escribe.
+     */
+    @GetMapping("/sugerencias")
+    @Operation(summary = "Autocompletar productos",
+               description = "Sugiere productos cuyo nombre o código empieza con el texto (sin distinguir tildes)")
+    public ResponseEntity<List<SugerenciaProductoDTO>> sugerir(@RequestParam String q,
+                                                               @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(productoService.sugerir(q, limite));
     }
 
     /**
@@ -167,13 +273,31 @@ public class ProductoController {
         return ResponseEntity.ok(productoService.obtenerConStockBajo());
     }
 
+    /**
+     * Suscripción a los cambios de stock bajo (Server-Sent Events).
+     */
+    @GetMapping(value = "/stock-bajo/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream de stock bajo",
+               description = "Envía el conjunto actual (evento stock-bajo) y luego un evento cambio cada vez " +
+                             "que un producto entra o sale del stock bajo")
+    public SseEmitter suscribirStockBajo() {
+        return productoService.suscribirStockBajo();
+    }
+
     /**
      * Actualiza el stock de un producto.
      */
     @PatchMapping("/{id}/stock")
-    @Operation(summary = "Actualizar stock", description = "Modifica el stock de un producto")
-    public ResponseEntity<?> actualizarStock(@PathVariable Long id, @RequestParam int cantidad) {
+    @Operation(summary = "Actualizar stock",
+               description = "Suma la cantidad (negativa para descontar) al stock. Con esperar=true (por defecto) " +
+                             "responde cuando el ajuste está confirmado; con esperar=false responde 202 al encolarlo")
+    public ResponseEntity<?> actualizarStock(@PathVariable Long id, @RequestParam int cantidad,
+                                             @RequestParam(defaultValue = "true") boolean esperar) {
         try {
+            if (!esperar) {
+                productoService.encolarStock(id, cantidad);
+                return ResponseEntity.accepted().body(Map.of("mensaje", "Ajuste de stock encolado"));
+            }
             ProductoDTO actualizado = productoService.actualizarStock(id, cantidad);
             return ResponseEntity.ok(actualizado);
         } catch (RuntimeException e) {
@@ -181,6 +305,39 @@ public class ProductoController {
         }
     }
 
+    /**
+     * Ajustes de stock encolados que fueron rechazados.
+     */
+    @GetMapping("/stock/rechazos")
+    @Operation(summary = "Ajustes de stock rechazados",
+               description = "Últimos ajustes encolados que no se aplicaron (stock insuficiente o producto inexistente)")
+    public ResponseEntity<List<RechazoStockDTO>> obtenerRechazosStock() {
+        return ResponseEntity.ok(productoService.obtenerRechazosStock());
+    }
+
+    /**
+     * Responde 304 si el cliente ya tiene la versión actual del catálogo; si no, los datos con su ETag.
+     * Datos y versión salen de la misma instantánea, así que el ETag siempre corresponde a lo enviado.
+     */
+    private <T> ResponseEntity<T> conVersionCatalogo(String versionCliente, Function<CatalogoService.Instantanea, T> datos) {
+        CatalogoService.Instantanea catalogo = productoService.obtenerCatalogo();
+        String etag = etagCatalogo(catalogo);
+        if (etag.equals(versionCliente)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(datos.apply(catalogo));
+    }
+
+    private static boolean esFiltroVacio(FiltroProductos filtro) {
+        return filtro.getCategoriaId() == null && filtro.getPrecioMin() == null && filtro.getPrecioMax() == null
+                && filtro.getConStock() == null && filtro.getStockBajo() == null
+                && filtro.getOrden() == null && filtro.getDireccion() == null;
+    }
+
+    private static String etagCatalogo(CatalogoService.Instantanea catalogo) {
+        return "\"catalogo-" + catalogo.getVersion() + "\"";
+    }
+
     /**
      * Clase interna para recibir datos del producto.
      */
@@ -0,0 +1,19 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda de preguntas frecuentes, con sugerencias de corrección
+ * cuando la consulta tiene palabras que no aparecen en ninguna pregunta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BusquedaFaqDTO {
+    private List<PreguntaFrecuenteDTO> resultados;
+
+    /** Consultas corregidas ("quizás quisiste decir"); vacía si no hubo correcciones. */
+    private List<String> quisoDecir;
+}
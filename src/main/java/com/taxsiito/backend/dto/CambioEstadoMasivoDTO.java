@@ -0,0 +1,33 @@
+package com.taxsiito.backend.dto;
+
+import com.taxsiito.backend.model.enums.EstadoOrden;
+import lombok.*;
+import java.util.List;
+
+/**
+ * DTO con el resultado de un cambio de estado masivo de órdenes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CambioEstadoMasivoDTO {
+    private EstadoOrden estado;
+    private Integer actualizadas;
+    private Integer rechazadas;
+    private List<ResultadoOrden> resultados;
+
+    /**
+     * Resultado del cambio para una orden.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ResultadoOrden {
+        private Long id;
+        private Boolean actualizada;
+        private EstadoOrden estadoAnterior;
+        private String error;
+    }
+}
@@ -0,0 +1,24 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * DTO que avisa que un producto entró o salió del conjunto de stock bajo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CambioStockBajoDTO {
+    private Long productoId;
+    private String codigo;
+    private String nombre;
+    private Integer stock;
+    private Integer stockCritico;
+
+    /** true si el producto quedó con stock bajo; false si lo repuso, se desactivó o se eliminó. */
+    private Boolean stockBajo;
+
+    private LocalDateTime fecha;
+}
@@ -2,6 +2,7 @@ package com.taxsiito.backend.dto;
 
 import com.taxsiito.backend.model.Categoria;
 import lombok.*;
+import java.math.BigDecimal;
 
 /**
  * DTO para transferir datos de Categoria.
@@ -15,10 +16,20 @@ public class CategoriaDTO {
     private String nombre;
     private String descripcion;
     private Boolean activa;
+    /** Productos de la categoría, activos e inactivos. */
     private Integer cantidadProductos;
+    private Integer productosActivos;
+
+    /** Precio mínimo y máximo de los productos activos (nulos si no hay). */
+    private BigDecimal precioMin;
+    private BigDecimal precioMax;
+
+    /** Productos activos con stock igual o menor al crítico. */
+    private Integer productosStockBajo;
 
     /**
-     * Convierte una entidad Categoria a DTO.
+     * Convierte una entidad Categoria a DTO, sin los conteos de productos
+     * (los completa CategoriaService desde la consulta agregada).
      */
     public static CategoriaDTO fromEntity(Categoria categoria) {
         if (categoria == null) return null;
@@ -27,7 +38,6 @@ public class CategoriaDTO {
                 .nombre(categoria.getNombre())
                 .descripcion(categoria.getDescripcion())
                 .activa(categoria.getActiva())
-                .cantidadProductos(categoria.getProductos() != null ? categoria.getProductos().size() : 0)
                 .build();
     }
 }
@@ -0,0 +1,38 @@
+package com.taxsiito.backend.dto;
+
+import com.taxsiito.backend.model.EventoSalida;
+import com.taxsiito.backend.model.enums.TipoEventoOrden;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un evento de orden entregado a los destinos del outbox.
+ * El ID es estable entre reintentos y sirve para descartar duplicados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoOrdenDTO {
+    private Long id;
+    private TipoEventoOrden tipo;
+    private Long ordenId;
+    private String numeroOrden;
+    private String payload;
+    private LocalDateTime fechaCreacion;
+
+    /**
+     * Convierte una entidad EventoSalida a DTO.
+     */
+    public static EventoOrdenDTO fromEntity(EventoSalida evento) {
+        if (evento == null) return null;
+        return EventoOrdenDTO.builder()
+                .id(evento.getId())
+                .tipo(evento.getTipo())
+                .ordenId(evento.getOrdenId())
+                .numeroOrden(evento.getNumeroOrden())
+                .payload(evento.getPayload())
+                .fechaCreacion(evento.getFechaCreacion())
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+
+/**
+ * Cantidad de productos de una categoría que cumplen los demás filtros del listado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetaCategoriaDTO {
+    private Long categoriaId;
+    private String categoriaNombre;
+    private Long cantidad;
+}
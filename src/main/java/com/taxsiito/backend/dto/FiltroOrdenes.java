@@ -0,0 +1,30 @@
+package com.taxsiito.backend.dto;
+
+import com.taxsiito.backend.model.enums.EstadoOrden;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Filtros combinables para el listado de órdenes.
+ * Todos los campos son opcionales.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FiltroOrdenes {
+    private Long usuarioId;
+    private EstadoOrden estado;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime desde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime hasta;
+
+    private String regionEnvio;
+    private BigDecimal totalMin;
+    private BigDecimal totalMax;
+}
@@ -0,0 +1,30 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+
+/**
+ * Filtros combinables y orden para el listado paginado de productos activos.
+ * Todos los campos son opcionales.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FiltroProductos {
+    private Long categoriaId;
+    private BigDecimal precioMin;
+    private BigDecimal precioMax;
+
+    /** Solo productos con stock mayor a cero. */
+    private Boolean conStock;
+
+    /** Solo productos con stock igual o menor al crítico. */
+    private Boolean stockBajo;
+
+    /** Campo de orden: precio, nombre (por defecto) o fechaCreacion. */
+    private String orden;
+
+    /** asc (por defecto) o desc. */
+    private String direccion;
+}
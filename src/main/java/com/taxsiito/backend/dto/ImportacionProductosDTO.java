@@ -0,0 +1,35 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de productos.
+ * Las filas con error se omiten sin afectar al resto del archivo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacionProductosDTO {
+    private Integer procesadas;
+    private Integer creadas;
+    private Integer actualizadas;
+    private Integer rechazadas;
+
+    /** Detalle de las filas rechazadas (hasta un máximo; rechazadas tiene el total). */
+    private List<ErrorFila> errores;
+
+    /**
+     * Error de una fila del archivo.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ErrorFila {
+        private Integer fila;
+        private String codigo;
+        private String error;
+    }
+}
@@ -37,6 +37,17 @@ public class OrdenDTO {
      * Convierte una entidad Orden a DTO.
      */
     public static OrdenDTO fromEntity(Orden orden) {
+        if (orden == null) return null;
+        return fromEntity(orden, orden.getItems() != null ?
+                orden.getItems().stream().map(ItemOrdenDTO::fromEntity).collect(Collectors.toList()) :
+                null);
+    }
+
+    /**
+     * Convierte una entidad Orden a DTO usando items ya cargados,
+     * sin inicializar la colección lazy de la entidad.
+     */
+    public static OrdenDTO fromEntity(Orden orden, List<ItemOrdenDTO> items) {
         if (orden == null) return null;
         return OrdenDTO.builder()
                 .id(orden.getId())
@@ -44,9 +55,7 @@ public class OrdenDTO {
                 .usuarioId(orden.getUsuario() != null ? orden.getUsuario().getId() : null)
                 .usuarioNombre(orden.getUsuario() != null ? orden.getUsuario().getNombreCompleto() : null)
                 .usuarioCorreo(orden.getUsuario() != null ? orden.getUsuario().getCorreo() : null)
-                .items(orden.getItems() != null ? 
-                       orden.getItems().stream().map(ItemOrdenDTO::fromEntity).collect(Collectors.toList()) : 
-                       null)
+                .items(items)
                 .subtotal(orden.getSubtotal())
                 .descuento(orden.getDescuento())
                 .total(orden.getTotal())
@@ -0,0 +1,19 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * DTO para una página de resultados paginada por cursor.
+ * Para pedir la página siguiente se envía siguienteCursor como parámetro cursor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaDTO<T> {
+    private List<T> items;
+    private Integer tamanio;
+    private Boolean hayMas;
+    private String siguienteCursor;
+}
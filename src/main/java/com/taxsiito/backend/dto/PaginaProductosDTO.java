@@ -0,0 +1,20 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Página del listado de productos con los conteos por categoría.
+ * Las facetas solo se calculan en la primera página (sin cursor); en las siguientes vienen nulas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaProductosDTO {
+    private List<ProductoDTO> items;
+    private Integer tamanio;
+    private Boolean hayMas;
+    private String siguienteCursor;
+    private List<FacetaCategoriaDTO> facetas;
+}
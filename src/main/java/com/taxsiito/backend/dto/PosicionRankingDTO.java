@@ -0,0 +1,19 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+
+/**
+ * DTO de una posición en el ranking de más vendidos (producto o categoría).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PosicionRankingDTO {
+    private Integer posicion;
+    private Long id;
+    private String nombre;
+
+    /** Unidades vendidas en órdenes no canceladas. */
+    private Long cantidad;
+}
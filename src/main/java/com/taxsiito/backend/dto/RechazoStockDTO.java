@@ -0,0 +1,18 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un ajuste de stock encolado que no se pudo aplicar.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RechazoStockDTO {
+    private Long productoId;
+    private Integer cantidad;
+    private String error;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,27 @@
+package com.taxsiito.backend.dto;
+
+import lombok.*;
+
+/**
+ * DTO liviano para las sugerencias del buscador de productos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SugerenciaProductoDTO {
+    private Long id;
+    private String codigo;
+    private String nombre;
+
+    /**
+     * Construye la sugerencia de un producto del catálogo.
+     */
+    public static SugerenciaProductoDTO fromProducto(ProductoDTO producto) {
+        return SugerenciaProductoDTO.builder()
+                .id(producto.getId())
+                .codigo(producto.getCodigo())
+                .nombre(producto.getNombre())
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.taxsiito.backend.dto;
+
+import com.taxsiito.backend.model.VentaAgregada;
+import com.taxsiito.backend.model.enums.GranularidadVenta;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para transferir un bucket de ventas agregadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VentaAgregadaDTO {
+    private GranularidadVenta granularidad;
+    private LocalDateTime inicio;
+    private Long cantidadOrdenes;
+    private BigDecimal subtotal;
+    private BigDecimal descuento;
+    private BigDecimal total;
+
+    /**
+     * Convierte una entidad VentaAgregada a DTO.
+     */
+    public static VentaAgregadaDTO fromEntity(VentaAgregada venta) {
+        if (venta == null) return null;
+        return VentaAgregadaDTO.builder()
+                .granularidad(venta.getGranularidad())
+                .inicio(venta.getInicio())
+                .cantidadOrdenes(venta.getCantidadOrdenes())
+                .subtotal(venta.getSubtotal())
+                .descuento(venta.getDescuento())
+                .total(venta.getTotal())
+                .build();
+    }
+}
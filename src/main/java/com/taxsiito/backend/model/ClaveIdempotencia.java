@@ -0,0 +1,44 @@
+package com.taxsiito.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ClaveIdempotencia: clave Idempotency-Key usada por un usuario en el checkout
+ * y la orden que produjo. Se inserta en la misma transacción que la orden.
+ */
+@Entity
+@Table(name = "claves_idempotencia",
+       uniqueConstraints = @UniqueConstraint(name = "uk_claves_idempotencia_usuario_clave",
+                                             columnNames = {"usuario_id", "clave"}),
+       indexes = @Index(name = "idx_claves_idempotencia_fecha", columnList = "fecha_creacion"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClaveIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false, length = 100)
+    private String clave;
+
+    /**
+     * SHA-256 del cuerpo de la solicitud, para detectar una clave reutilizada con otros datos.
+     */
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    @Column(name = "orden_id")
+    private Long ordenId;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime fechaCreacion = LocalDateTime.now();
+}
@@ -8,7 +8,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  * Entidad que representa una Comuna de Chile.
  */
 @Entity
-@Table(name = "comunas")
+@Table(name = "comunas", indexes = {
+        @Index(name = "idx_comunas_region_activo", columnList = "region_id, activo")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
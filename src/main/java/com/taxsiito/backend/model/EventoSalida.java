@@ -0,0 +1,67 @@
+package com.taxsiito.backend.model;
+
+import com.taxsiito.backend.model.enums.TipoEventoOrden;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad EventoSalida: evento de orden pendiente de despacho (outbox transaccional).
+ * Se escribe en la misma transacción que el cambio de la orden. Queda despachado
+ * (fecha_despacho) cuando todos los destinos lo aceptaron, o descartado si uno lo
+ * rechazó el máximo de intentos.
+ */
+@Entity
+@Table(name = "eventos_salida", indexes = {
+        @Index(name = "idx_eventos_salida_pendientes", columnList = "fecha_despacho, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoSalida {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoEventoOrden tipo;
+
+    @Column(name = "orden_id", nullable = false)
+    private Long ordenId;
+
+    @Column(name = "numero_orden", length = 20)
+    private String numeroOrden;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime fechaCreacion = LocalDateTime.now();
+
+    @Column(name = "fecha_despacho")
+    private LocalDateTime fechaDespacho;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    /**
+     * Destinos que ya aceptaron el evento, separados por coma.
+     */
+    @Column(name = "destinos_entregados", length = 200)
+    private String destinosEntregados;
+
+    /**
+     * Un destino lo rechazó el máximo de intentos: ya no se despacha.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean descartado = false;
+}
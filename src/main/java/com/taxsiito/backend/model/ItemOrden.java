@@ -9,7 +9,10 @@ import java.math.BigDecimal;
  * Entidad ItemOrden: representa un producto dentro de una orden.
  */
 @Entity
-@Table(name = "items_orden")
+@Table(name = "items_orden", indexes = {
+        @Index(name = "idx_items_orden_orden", columnList = "orden_id"),
+        @Index(name = "idx_items_orden_producto_cantidad", columnList = "producto_id, cantidad")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
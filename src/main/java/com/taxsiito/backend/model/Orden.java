@@ -13,7 +13,15 @@ import java.util.List;
  * Entidad Orden: representa una orden de compra.
  */
 @Entity
-@Table(name = "ordenes")
+@Table(name = "ordenes", indexes = {
+        // Índices para la paginación por clave (fecha_creacion, id) combinada con filtros
+        @Index(name = "idx_ordenes_fecha", columnList = "fecha_creacion, id"),
+        @Index(name = "idx_ordenes_usuario_fecha", columnList = "usuario_id, fecha_creacion, id"),
+        @Index(name = "idx_ordenes_estado_fecha", columnList = "estado, fecha_creacion, id"),
+        @Index(name = "idx_ordenes_region_fecha", columnList = "region_envio, fecha_creacion, id"),
+        // Recorrido por estado en orden de ID (reconstrucción de ventas)
+        @Index(name = "idx_ordenes_estado", columnList = "estado")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -77,7 +85,8 @@ public class Orden {
     private LocalDateTime fechaActualizacion;
 
     /**
-     * Genera un número de orden único.
+     * Asigna un número de orden si no se proporcionó.
+     * Las órdenes del checkout reciben su número desde GeneradorNumeroOrden.
      */
     @PrePersist
     public void generarNumeroOrden() {
@@ -106,6 +115,13 @@ public class Orden {
      * Calcula el total de la orden sumando los items.
      */
     public void calcularTotales() {
+        calcularTotales(items);
+    }
+
+    /**
+     * Calcula el total de la orden a partir de la lista de items dada.
+     */
+    public void calcularTotales(List<ItemOrden> items) {
         this.subtotal = items.stream()
                 .map(ItemOrden::getSubtotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
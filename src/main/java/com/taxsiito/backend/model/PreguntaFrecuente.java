@@ -8,7 +8,10 @@ import lombok.*;
  * Entidad PreguntaFrecuente: preguntas y respuestas para el ChatSIIto.
  */
 @Entity
-@Table(name = "preguntas_frecuentes")
+@Table(name = "preguntas_frecuentes", indexes = {
+        @Index(name = "idx_preguntas_activa_orden", columnList = "activa, orden_visualizacion"),
+        @Index(name = "idx_preguntas_categoria_activa_orden", columnList = "categoria_pregunta, activa, orden_visualizacion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
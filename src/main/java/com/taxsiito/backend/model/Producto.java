@@ -3,14 +3,23 @@ package com.taxsiito.backend.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * Entidad Producto: representa los productos de la tienda.
+ * Con @DynamicUpdate, guardar la entidad escribe solo las columnas modificadas: editar el
+ * nombre o el precio no sobrescribe el stock que StockService cambia por JDBC.
  */
 @Entity
-@Table(name = "productos")
+@DynamicUpdate
+@Table(name = "productos", indexes = {
+        @Index(name = "idx_productos_categoria_activo_precio", columnList = "categoria_id, activo, precio, id"),
+        @Index(name = "idx_productos_activo_precio", columnList = "activo, precio, id"),
+        @Index(name = "idx_productos_activo_nombre", columnList = "activo, nombre, id"),
+        @Index(name = "idx_productos_activo_fecha", columnList = "activo, fecha_creacion, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,23 @@
+package com.taxsiito.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entidad Secuencia: contador persistente usado para asignar bloques de números.
+ */
+@Entity
+@Table(name = "secuencias")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Secuencia {
+
+    @Id
+    @Column(length = 50)
+    private String nombre;
+
+    @Column(nullable = false)
+    private Long valor;
+}
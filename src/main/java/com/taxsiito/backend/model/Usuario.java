@@ -13,7 +13,9 @@ import java.util.List;
  * Incluye clientes, vendedores y administradores.
  */
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", indexes = {
+        @Index(name = "idx_usuarios_rol", columnList = "rol")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
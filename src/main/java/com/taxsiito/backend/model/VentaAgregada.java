@@ -0,0 +1,50 @@
+package com.taxsiito.backend.model;
+
+import com.taxsiito.backend.model.enums.GranularidadVenta;
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad VentaAgregada: totales de órdenes PAGADA por hora o por día.
+ * El inicio del bucket está en hora local de America/Santiago y agrupa las órdenes
+ * según su fecha de creación, igual que la consulta de ventas original.
+ */
+@Entity
+@Table(name = "ventas_agregadas", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ventas_agregadas_bucket", columnNames = {"granularidad", "inicio"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VentaAgregada {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private GranularidadVenta granularidad;
+
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    @Column(name = "cantidad_ordenes", nullable = false)
+    @Builder.Default
+    private Long cantidadOrdenes = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 0)
+    @Builder.Default
+    private BigDecimal subtotal = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 14, scale = 0)
+    @Builder.Default
+    private BigDecimal descuento = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 14, scale = 0)
+    @Builder.Default
+    private BigDecimal total = BigDecimal.ZERO;
+}
@@ -0,0 +1,9 @@
+package com.taxsiito.backend.model.enums;
+
+/**
+ * Enum que define el tamaño de los buckets de ventas agregadas.
+ */
+public enum GranularidadVenta {
+    HORA,   // Bucket de una hora
+    DIA     // Bucket de un día
+}
@@ -0,0 +1,9 @@
+package com.taxsiito.backend.model.enums;
+
+/**
+ * Enum que define los tipos de eventos de órdenes publicados por el outbox.
+ */
+public enum TipoEventoOrden {
+    ORDEN_CREADA,       // Checkout completado
+    ESTADO_ACTUALIZADO  // Cambio de estado de una orden
+}
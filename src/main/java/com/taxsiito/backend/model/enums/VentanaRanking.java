@@ -0,0 +1,20 @@
+package com.taxsiito.backend.model.enums;
+
+/**
+ * Enum que define el período de los rankings de más vendidos.
+ */
+public enum VentanaRanking {
+    TOTAL(0),      // Todo el historial
+    DIAS_7(7),     // Hoy y los 6 días anteriores
+    DIAS_30(30);   // Hoy y los 29 días anteriores
+
+    private final int dias;
+
+    VentanaRanking(int dias) {
+        this.dias = dias;
+    }
+
+    public int getDias() {
+        return dias;
+    }
+}
@@ -0,0 +1,29 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.model.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio para las claves de idempotencia del checkout.
+ */
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+
+    /**
+     * Busca la clave de un usuario.
+     */
+    Optional<ClaveIdempotencia> findByUsuarioIdAndClave(Long usuarioId, String clave);
+
+    /**
+     * Elimina las claves creadas antes de la fecha dada.
+     */
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaCreacion < :limite")
+    int eliminarAntesDe(@Param("limite") LocalDateTime limite);
+}
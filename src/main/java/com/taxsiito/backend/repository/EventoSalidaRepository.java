@@ -0,0 +1,32 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.model.EventoSalida;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio para el outbox de eventos de órdenes.
+ */
+@Repository
+public interface EventoSalidaRepository extends JpaRepository<EventoSalida, Long> {
+
+    /**
+     * Bloquea el siguiente lote de eventos pendientes (ni despachados ni descartados).
+     * SKIP LOCKED permite que varias instancias despachen en paralelo sin tomar los mismos eventos.
+     */
+    @Query(value = "SELECT * FROM eventos_salida WHERE fecha_despacho IS NULL AND descartado = false ORDER BY id " +
+                   "LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EventoSalida> bloquearPendientes(@Param("limite") int limite);
+
+    /**
+     * Elimina eventos despachados antes de la fecha dada.
+     */
+    @Modifying
+    @Query("DELETE FROM EventoSalida e WHERE e.fechaDespacho < :limite")
+    int eliminarDespachadosAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -5,19 +5,63 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repositorio para operaciones CRUD de ItemOrden.
  */
 @Repository
-public interface ItemOrdenRepository extends JpaRepository<ItemOrden, Long> {
+public interface ItemOrdenRepository extends JpaRepository<ItemOrden, Long>, ItemOrdenRepositoryCustom {
 
     /**
      * Obtiene todos los items de una orden.
      */
     List<ItemOrden> findByOrdenId(Long ordenId);
 
+    /**
+     * Obtiene los items de varias órdenes con su producto en una sola consulta.
+     */
+    @Query("SELECT i FROM ItemOrden i LEFT JOIN FETCH i.producto WHERE i.orden.id IN :ordenIds ORDER BY i.id")
+    List<ItemOrden> findConProductoByOrdenIdIn(@Param("ordenIds") Collection<Long> ordenIds);
+
+    /**
+     * Suma las cantidades por producto de los items de varias órdenes.
+     * Cada fila contiene [productoId, cantidad].
+     */
+    @Query("SELECT i.producto.id, SUM(i.cantidad) FROM ItemOrden i " +
+           "WHERE i.orden.id IN :ordenIds AND i.producto IS NOT NULL GROUP BY i.producto.id")
+    List<Object[]> sumarCantidadesPorProducto(@Param("ordenIds") Collection<Long> ordenIds);
+
+    /**
+     * Unidades vendidas por producto en las órdenes dadas, con la fecha de la orden
+     * y la categoría actual del producto. Cada fila contiene [ordenId, fechaCreacion, productoId, categoriaId, Long].
+     */
+    @Query("SELECT o.id, o.fechaCreacion, p.id, c.id, SUM(i.cantidad) FROM ItemOrden i JOIN i.orden o " +
+           "JOIN i.producto p LEFT JOIN p.categoria c WHERE o.id IN :ordenIds " +
+           "GROUP BY o.id, o.fechaCreacion, p.id, c.id")
+    List<Object[]> sumarVendidosPorOrden(@Param("ordenIds") Collection<Long> ordenIds);
+
+    /**
+     * Unidades vendidas por producto en órdenes no canceladas, con la categoría actual del producto.
+     * Cada fila contiene [productoId, categoriaId, Long].
+     */
+    @Query("SELECT p.id, c.id, SUM(i.cantidad) FROM ItemOrden i JOIN i.orden o " +
+           "JOIN i.producto p LEFT JOIN p.categoria c " +
+           "WHERE o.estado <> com.taxsiito.backend.model.enums.EstadoOrden.CANCELADA GROUP BY p.id, c.id")
+    List<Object[]> sumarVendidosPorProducto();
+
+    /**
+     * Unidades vendidas por producto y orden desde la fecha dada, en órdenes no canceladas.
+     * Cada fila contiene [fechaCreacion, productoId, categoriaId, Long].
+     */
+    @Query("SELECT o.fechaCreacion, p.id, c.id, SUM(i.cantidad) FROM ItemOrden i JOIN i.orden o " +
+           "JOIN i.producto p LEFT JOIN p.categoria c " +
+           "WHERE o.estado <> com.taxsiito.backend.model.enums.EstadoOrden.CANCELADA AND o.fechaCreacion >= :desde " +
+           "GROUP BY o.id, o.fechaCreacion, p.id, c.id")
+    List<Object[]> sumarVendidosDesde(@Param("desde") LocalDateTime desde);
+
     /**
      * Obtiene items que contienen un producto específico.
      */
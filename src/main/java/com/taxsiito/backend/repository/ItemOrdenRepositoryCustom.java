@@ -0,0 +1,15 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.model.ItemOrden;
+import java.util.List;
+
+/**
+ * Operaciones JDBC en lote para ItemOrden.
+ */
+public interface ItemOrdenRepositoryCustom {
+
+    /**
+     * Inserta los items de una orden en un solo lote JDBC y asigna los IDs generados.
+     */
+    void insertarEnLote(Long ordenId, List<ItemOrden> items);
+}
@@ -0,0 +1,61 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.model.ItemOrden;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación JDBC de las operaciones en lote de ItemOrden.
+ * Hibernate no agrupa inserts de entidades con ID IDENTITY, por eso se usa JdbcTemplate.
+ */
+@RequiredArgsConstructor
+public class ItemOrdenRepositoryCustomImpl implements ItemOrdenRepositoryCustom {
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO items_orden (orden_id, producto_id, nombre_producto, precio_unitario, cantidad, subtotal) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(Long ordenId, List<ItemOrden> items) {
+        if (items.isEmpty()) return;
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ItemOrden item = items.get(i);
+                        ps.setLong(1, ordenId);
+                        ps.setLong(2, item.getProducto().getId());
+                        ps.setString(3, item.getNombreProducto());
+                        ps.setBigDecimal(4, item.getPrecioUnitario());
+                        ps.setInt(5, item.getCantidad());
+                        ps.setBigDecimal(6, item.getSubtotal());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keyHolder);
+
+        // Asignar los IDs generados en el mismo orden del lote
+        List<Map<String, Object>> claves = keyHolder.getKeyList();
+        for (int i = 0; i < items.size() && i < claves.size(); i++) {
+            Object id = claves.get(i).values().iterator().next();
+            items.get(i).setId(((Number) id).longValue());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.dto.ItemOrdenDTO;
+import com.taxsiito.backend.dto.OrdenDTO;
+import com.taxsiito.backend.model.enums.EstadoOrden;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a las tablas de archivo de órdenes (ordenes_archivo, items_orden_archivo, migración V4).
+ * Las órdenes ENTREGADA y CANCELADA antiguas se mueven ahí para que las tablas
+ * activas y sus índices se mantengan pequeños.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrdenArchivoRepository {
+
+    private static final String COLUMNAS_ORDEN =
+            "id, numero_orden, usuario_id, subtotal, descuento, total, estado, direccion_envio, " +
+            "region_envio, comuna_envio, notas, fecha_creacion, fecha_actualizacion";
+
+    private static final String COLUMNAS_ITEM =
+            "id, orden_id, producto_id, nombre_producto, precio_unitario, cantidad, subtotal";
+
+    private static final String SELECT_ORDEN =
+            "SELECT o.*, u.nombres, u.apellidos, u.correo FROM ordenes_archivo o " +
+            "LEFT JOIN usuarios u ON u.id = o.usuario_id ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Bloquea un lote de órdenes terminadas creadas antes de la fecha dada.
+     * Devuelve un mapa ID de orden -> ID de usuario.
+     */
+    public Map<Long, Long> bloquearArchivables(LocalDateTime limite, int tamanio) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("estados", List.of(EstadoOrden.ENTREGADA.name(), EstadoOrden.CANCELADA.name()))
+                .addValue("limite", Timestamp.valueOf(limite))
+                .addValue("tamanio", tamanio);
+        Map<Long, Long> ordenes = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, usuario_id FROM ordenes WHERE estado IN (:estados) " +
+                           "AND fecha_creacion < :limite LIMIT :tamanio FOR UPDATE SKIP LOCKED",
+                params, rs -> {
+                    ordenes.put(rs.getLong("id"), rs.getLong("usuario_id"));
+                });
+        return ordenes;
+    }
+
+    /**
+     * Copia las órdenes y sus items a las tablas de archivo y los elimina de las activas.
+     */
+    public int archivar(Collection<Long> ordenIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ordenIds);
+        jdbcTemplate.update("INSERT INTO items_orden_archivo (" + COLUMNAS_ITEM + ") SELECT " + COLUMNAS_ITEM +
+                            " FROM items_orden WHERE orden_id IN (:ids)", params);
+        jdbcTemplate.update("INSERT INTO ordenes_archivo (" + COLUMNAS_ORDEN + ") SELECT " + COLUMNAS_ORDEN +
+                            " FROM ordenes WHERE id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM items_orden WHERE orden_id IN (:ids)", params);
+        return jdbcTemplate.update("DELETE FROM ordenes WHERE id IN (:ids)", params);
+    }
+
+    /**
+     * Busca una orden archivada por ID.
+     */
+    public Optional<OrdenDTO> buscarPorId(Long id) {
+        return buscar(SELECT_ORDEN + "WHERE o.id = :valor", id);
+    }
+
+    /**
+     * Busca una orden archivada por número de orden.
+     */
+    public Optional<OrdenDTO> buscarPorNumero(String numeroOrden) {
+        return buscar(SELECT_ORDEN + "WHERE o.numero_orden = :valor", numeroOrden);
+    }
+
+    /**
+     * Cuenta las órdenes archivadas por estado.
+     */
+    public Map<EstadoOrden, Long> contarPorEstado() {
+        Map<EstadoOrden, Long> conteos = new EnumMap<>(EstadoOrden.class);
+        jdbcTemplate.query("SELECT estado, COUNT(*) AS cantidad FROM ordenes_archivo GROUP BY estado", rs -> {
+            conteos.put(EstadoOrden.valueOf(rs.getString("estado")), rs.getLong("cantidad"));
+        });
+        return conteos;
+    }
+
+    /**
+     * Unidades vendidas por producto en las órdenes archivadas no canceladas, con la categoría
+     * actual del producto. Cada fila contiene [productoId, categoriaId, cantidad].
+     */
+    public List<Object[]> sumarVendidosPorProducto() {
+        return jdbcTemplate.query(
+                "SELECT i.producto_id, p.categoria_id, SUM(i.cantidad) FROM items_orden_archivo i " +
+                "JOIN ordenes_archivo o ON o.id = i.orden_id LEFT JOIN productos p ON p.id = i.producto_id " +
+                "WHERE o.estado <> 'CANCELADA' AND i.producto_id IS NOT NULL GROUP BY i.producto_id, p.categoria_id",
+                (rs, n) -> new Object[]{rs.getLong(1), rs.getObject(2, Long.class), rs.getLong(3)});
+    }
+
+    private Optional<OrdenDTO> buscar(String sql, Object valor) {
+        List<OrdenDTO> ordenes = jdbcTemplate.query(sql, new MapSqlParameterSource("valor", valor), MAPEO_ORDEN);
+        if (ordenes.isEmpty()) return Optional.empty();
+
+        OrdenDTO orden = ordenes.get(0);
+        orden.setItems(jdbcTemplate.query(
+                "SELECT i.*, p.imagen FROM items_orden_archivo i LEFT JOIN productos p ON p.id = i.producto_id " +
+                "WHERE i.orden_id = :ordenId ORDER BY i.id",
+                new MapSqlParameterSource("ordenId", orden.getId()), MAPEO_ITEM));
+        return Optional.of(orden);
+    }
+
+    private static final RowMapper<OrdenDTO> MAPEO_ORDEN = (rs, fila) -> {
+        Timestamp actualizacion = rs.getTimestamp("fecha_actualizacion");
+        String nombres = rs.getString("nombres");
+        return OrdenDTO.builder()
+                .id(rs.getLong("id"))
+                .numeroOrden(rs.getString("numero_orden"))
+                .usuarioId(rs.getLong("usuario_id"))
+                .usuarioNombre(nombres != null ? (nombres + " " + rs.getString("apellidos")).trim() : null)
+                .usuarioCorreo(rs.getString("correo"))
+                .subtotal(rs.getBigDecimal("subtotal"))
+                .descuento(rs.getBigDecimal("descuento"))
+                .total(rs.getBigDecimal("total"))
+                .estado(EstadoOrden.valueOf(rs.getString("estado")))
+                .direccionEnvio(rs.getString("direccion_envio"))
+                .regionEnvio(rs.getString("region_envio"))
+                .comunaEnvio(rs.getString("comuna_envio"))
+                .notas(rs.getString("notas"))
+                .fechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime())
+                .fechaActualizacion(actualizacion != null ? actualizacion.toLocalDateTime() : null)
+                .build();
+    };
+
+    private static final RowMapper<ItemOrdenDTO> MAPEO_ITEM = (rs, fila) -> ItemOrdenDTO.builder()
+            .id(rs.getLong("id"))
+            .productoId(rs.getObject("producto_id", Long.class))
+            .nombreProducto(rs.getString("nombre_producto"))
+            .precioUnitario(rs.getBigDecimal("precio_unitario"))
+            .cantidad(rs.getInt("cantidad"))
+            .subtotal(rs.getBigDecimal("subtotal"))
+            .imagenProducto(rs.getString("imagen"))
+            .build();
+}
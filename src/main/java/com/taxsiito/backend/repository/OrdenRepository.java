@@ -2,11 +2,18 @@ package com.taxsiito.backend.repository;
 
 import com.taxsiito.backend.model.Orden;
 import com.taxsiito.backend.model.enums.EstadoOrden;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,11 +21,46 @@ import java.util.Optional;
  * Repositorio para operaciones CRUD de Orden.
  */
 @Repository
-public interface OrdenRepository extends JpaRepository<Orden, Long> {
+public interface OrdenRepository extends JpaRepository<Orden, Long>, JpaSpecificationExecutor<Orden>,
+        OrdenRepositoryCustom {
+
+    /**
+     * Busca una orden por ID junto con su usuario.
+     */
+    @EntityGraph(attributePaths = "usuario")
+    Optional<Orden> findConUsuarioById(Long id);
+
+    /**
+     * Obtiene y bloquea una orden junto con su usuario, para cambiar su estado: un cambio
+     * concurrente de la misma orden espera y luego valida contra el estado ya confirmado.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = "usuario")
+    @Query("SELECT o FROM Orden o WHERE o.id = :id")
+    Optional<Orden> bloquearConUsuarioPorId(@Param("id") Long id);
+
+    /**
+     * Obtiene y bloquea varias órdenes para actualizarlas. Se ordenan por ID para que
+     * dos cambios masivos concurrentes tomen los bloqueos en el mismo orden.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Orden o WHERE o.id IN :ids ORDER BY o.id")
+    List<Orden> bloquearPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Cambia el estado de varias órdenes en una sola sentencia.
+     * Limpia el contexto de persistencia: las órdenes cargadas antes quedan desasociadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Orden o SET o.estado = :estado, o.fechaActualizacion = :fecha WHERE o.id IN :ids")
+    int actualizarEstadoEnLote(@Param("ids") Collection<Long> ids,
+                               @Param("estado") EstadoOrden estado,
+                               @Param("fecha") LocalDateTime fecha);
 
     /**
      * Busca una orden por número de orden.
      */
+    @EntityGraph(attributePaths = "usuario")
     Optional<Orden> findByNumeroOrden(String numeroOrden);
 
     /**
@@ -46,6 +88,19 @@ public interface OrdenRepository extends JpaRepository<Orden, Long> {
      */
     Long countByEstado(EstadoOrden estado);
 
+    /**
+     * Cuenta órdenes de todos los estados en una sola consulta.
+     * Cada fila contiene [EstadoOrden, Long].
+     */
+    @Query("SELECT o.estado, COUNT(o) FROM Orden o GROUP BY o.estado")
+    List<Object[]> contarAgrupadoPorEstado();
+
+    /**
+     * Estado de las órdenes dadas que existen. Cada fila contiene [id, EstadoOrden].
+     */
+    @Query("SELECT o.id, o.estado FROM Orden o WHERE o.id IN :ids")
+    List<Object[]> findEstadosByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Suma el total de ventas en un rango de fechas.
      */
@@ -54,9 +109,20 @@ public interface OrdenRepository extends JpaRepository<Orden, Long> {
                                                      @Param("inicio") LocalDateTime inicio, 
                                                      @Param("fin") LocalDateTime fin);
 
+    /**
+     * Obtiene [id, fechaCreacion, subtotal, descuento, total] de las órdenes en un estado,
+     * por lotes ordenados por ID a partir de desdeId (exclusivo).
+     */
+    @Query("SELECT o.id, o.fechaCreacion, o.subtotal, o.descuento, o.total FROM Orden o " +
+           "WHERE o.estado = :estado AND o.id > :desdeId ORDER BY o.id")
+    List<Object[]> findResumenVentas(@Param("estado") EstadoOrden estado,
+                                     @Param("desdeId") Long desdeId,
+                                     Pageable pageable);
+
     /**
      * Obtiene las últimas N órdenes.
      */
+    @EntityGraph(attributePaths = "usuario")
     List<Orden> findTop10ByOrderByFechaCreacionDesc();
 }
 
@@ -0,0 +1,17 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.dto.FiltroOrdenes;
+import com.taxsiito.backend.model.Orden;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de Orden que no se pueden expresar como métodos derivados.
+ */
+public interface OrdenRepositoryCustom {
+
+    /**
+     * Recorre las órdenes que cumplen el filtro (con su usuario) en orden de ID,
+     * con un cursor de solo avance. El Stream debe cerrarse y usarse dentro de una transacción.
+     */
+    Stream<Orden> streamConFiltro(FiltroOrdenes filtro);
+}
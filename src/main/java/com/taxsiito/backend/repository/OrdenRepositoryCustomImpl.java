@@ -0,0 +1,38 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.dto.FiltroOrdenes;
+import com.taxsiito.backend.model.Orden;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de las consultas personalizadas de Orden.
+ */
+public class OrdenRepositoryCustomImpl implements OrdenRepositoryCustom {
+
+    static final int TAMANIO_FETCH = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Orden> streamConFiltro(FiltroOrdenes filtro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Orden> query = cb.createQuery(Orden.class);
+        Root<Orden> root = query.from(Orden.class);
+        root.fetch("usuario");
+        query.select(root)
+                .where(OrdenSpecifications.conFiltro(filtro).toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, TAMANIO_FETCH)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,60 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.dto.FiltroOrdenes;
+import com.taxsiito.backend.model.Orden;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Especificaciones JPA para consultas dinámicas de Orden.
+ */
+public final class OrdenSpecifications {
+
+    private OrdenSpecifications() {
+    }
+
+    /**
+     * Aplica los filtros no nulos de FiltroOrdenes.
+     */
+    public static Specification<Orden> conFiltro(FiltroOrdenes filtro) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            if (filtro.getUsuarioId() != null) {
+                predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuarioId()));
+            }
+            if (filtro.getEstado() != null) {
+                predicados.add(cb.equal(root.get("estado"), filtro.getEstado()));
+            }
+            if (filtro.getDesde() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("fechaCreacion"), filtro.getDesde()));
+            }
+            if (filtro.getHasta() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("fechaCreacion"), filtro.getHasta()));
+            }
+            if (filtro.getRegionEnvio() != null && !filtro.getRegionEnvio().isBlank()) {
+                predicados.add(cb.equal(root.get("regionEnvio"), filtro.getRegionEnvio()));
+            }
+            if (filtro.getTotalMin() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("total"), filtro.getTotalMin()));
+            }
+            if (filtro.getTotalMax() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("total"), filtro.getTotalMax()));
+            }
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Órdenes posteriores al cursor en orden (fechaCreacion DESC, id DESC).
+     */
+    public static Specification<Orden> despuesDe(LocalDateTime fechaCreacion, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("fechaCreacion"), fechaCreacion),
+                cb.and(
+                        cb.equal(root.get("fechaCreacion"), fechaCreacion),
+                        cb.lessThan(root.get("id"), id)));
+    }
+}
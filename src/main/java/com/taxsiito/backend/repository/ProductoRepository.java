@@ -1,24 +1,38 @@
 package com.taxsiito.backend.repository;
 
 import com.taxsiito.backend.model.Producto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para operaciones CRUD de Producto.
  */
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto>,
+        ProductoRepositoryCustom {
 
     /**
      * Busca un producto por código.
      */
     Optional<Producto> findByCodigo(String codigo);
 
+    /**
+     * Busca un producto por código junto con su categoría.
+     */
+    @Query("SELECT p FROM Producto p LEFT JOIN FETCH p.categoria WHERE p.codigo = :codigo")
+    Optional<Producto> findConCategoriaByCodigo(@Param("codigo") String codigo);
+
     /**
      * Verifica si existe un producto con el código dado.
      */
@@ -29,6 +43,24 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
      */
     List<Producto> findByActivoTrue();
 
+    /**
+     * Obtiene los productos activos con su categoría en una sola consulta.
+     */
+    @Query("SELECT p FROM Producto p LEFT JOIN FETCH p.categoria WHERE p.activo = true")
+    List<Producto> findActivosConCategoria();
+
+    /**
+     * Obtiene varios productos con su categoría en una sola consulta.
+     */
+    @Query("SELECT p FROM Producto p LEFT JOIN FETCH p.categoria WHERE p.id IN :ids")
+    List<Producto> findConCategoriaByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Stock actual de varios productos. Cada fila contiene [id, stock].
+     */
+    @Query("SELECT p.id, p.stock FROM Producto p WHERE p.id IN :ids")
+    List<Object[]> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Obtiene productos por categoría.
      */
@@ -55,6 +87,53 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
      */
     List<Producto> findByStockLessThanEqualAndActivoTrue(int stock);
 
+    /**
+     * Recorre productos (con su categoría) en orden de ID con un cursor de solo avance,
+     * para exportaciones. Los filtros nulos se ignoran.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Producto p LEFT JOIN FETCH p.categoria " +
+           "WHERE (:activo IS NULL OR p.activo = :activo) " +
+           "AND (:categoriaId IS NULL OR p.categoria.id = :categoriaId) ORDER BY p.id")
+    Stream<Producto> streamParaExportar(@Param("activo") Boolean activo, @Param("categoriaId") Long categoriaId);
+
+    /**
+     * Cuenta los productos activos de cada categoría que cumplen los filtros del listado
+     * (sin filtrar por categoría). Cada fila contiene [categoriaId, nombre, Long].
+     */
+    @Query("SELECT c.id, c.nombre, COUNT(p) FROM Producto p JOIN p.categoria c " +
+           "WHERE p.activo = true " +
+           "AND (:precioMin IS NULL OR p.precio >= :precioMin) " +
+           "AND (:precioMax IS NULL OR p.precio <= :precioMax) " +
+           "AND (:conStock = false OR p.stock > 0) " +
+           "AND (:stockBajo = false OR p.stock <= p.stockCritico) " +
+           "GROUP BY c.id, c.nombre ORDER BY c.nombre")
+    List<Object[]> contarFacetasPorCategoria(@Param("precioMin") BigDecimal precioMin,
+                                             @Param("precioMax") BigDecimal precioMax,
+                                             @Param("conStock") boolean conStock,
+                                             @Param("stockBajo") boolean stockBajo);
+
+    /**
+     * Verifica si la categoría tiene productos, activos o no.
+     */
+    boolean existsByCategoriaId(Long categoriaId);
+
+    /**
+     * Estadísticas de productos de todas las categorías en una sola consulta agrupada.
+     * Cada fila contiene [categoriaId, total, activos, precioMin, precioMax, stockBajo];
+     * precios y stock bajo consideran solo los productos activos.
+     */
+    @Query("SELECT p.categoria.id, COUNT(p), " +
+           "SUM(CASE WHEN p.activo = true THEN 1 ELSE 0 END), " +
+           "MIN(CASE WHEN p.activo = true THEN p.precio END), " +
+           "MAX(CASE WHEN p.activo = true THEN p.precio END), " +
+           "SUM(CASE WHEN p.activo = true AND p.stock <= p.stockCritico THEN 1 ELSE 0 END) " +
+           "FROM Producto p WHERE p.categoria IS NOT NULL GROUP BY p.categoria.id")
+    List<Object[]> obtenerEstadisticasPorCategoria();
+
     /**
      * Cuenta productos por categoría.
      */
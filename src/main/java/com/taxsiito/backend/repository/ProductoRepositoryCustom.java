@@ -0,0 +1,55 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.model.Producto;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Operaciones JDBC en lote para Producto.
+ * Todas las modificaciones de stock son UPDATE condicionales atómicos en la base de datos.
+ */
+public interface ProductoRepositoryCustom {
+
+    /**
+     * Descuenta stock de varios productos en un solo lote de UPDATE condicionales
+     * ({@code stock = stock - n WHERE stock >= n}).
+     * Devuelve las filas afectadas por cada entrada, en el orden de iteración del mapa:
+     * 0 indica stock insuficiente o producto inexistente.
+     */
+    int[] reservarStockEnLote(Map<Long, Integer> cantidades);
+
+    /**
+     * Devuelve stock a varios productos en un solo lote JDBC.
+     */
+    void liberarStockEnLote(Map<Long, Integer> cantidades);
+
+    /**
+     * Suma (o resta si es negativo) una cantidad al stock sin dejarlo bajo cero.
+     * Devuelve las filas afectadas: 0 si el producto no existe o el stock no alcanza.
+     */
+    int ajustarStock(Long id, int cantidad);
+
+    /**
+     * Ajusta el stock de varios productos en un solo lote de UPDATE condicionales
+     * ({@code stock = stock + n WHERE stock + n >= 0}).
+     * Devuelve las filas afectadas por cada entrada, en el orden de iteración del mapa.
+     */
+    int[] ajustarStockEnLote(Map<Long, Integer> cantidades);
+
+    /**
+     * Códigos de todos los productos, para validar una importación sin consultar fila por fila.
+     */
+    Set<String> obtenerCodigos();
+
+    /**
+     * Inserta productos nuevos en un solo lote JDBC. No asigna los IDs generados.
+     */
+    void insertarEnLote(List<Producto> productos);
+
+    /**
+     * Actualiza productos existentes, buscados por código, en un solo lote JDBC.
+     * Los campos opcionales nulos conservan su valor actual.
+     */
+    void actualizarPorCodigoEnLote(List<Producto> productos);
+}
@@ -0,0 +1,117 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.model.Producto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación JDBC de las operaciones en lote de Producto.
+ */
+@RequiredArgsConstructor
+public class ProductoRepositoryCustomImpl implements ProductoRepositoryCustom {
+
+    private static final String RESERVAR_STOCK =
+            "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String LIBERAR_STOCK =
+            "UPDATE productos SET stock = stock + ? WHERE id = ?";
+    private static final String AJUSTAR_STOCK =
+            "UPDATE productos SET stock = stock + ? WHERE id = ? AND stock + ? >= 0";
+
+    private static final String INSERTAR =
+            "INSERT INTO productos (codigo, nombre, descripcion, precio, stock, stock_critico, imagen, " +
+            "categoria_id, fecha_creacion, activo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ACTUALIZAR_POR_CODIGO =
+            "UPDATE productos SET nombre = ?, descripcion = COALESCE(?, descripcion), precio = ?, " +
+            "stock = COALESCE(?, stock), stock_critico = COALESCE(?, stock_critico), imagen = COALESCE(?, imagen), " +
+            "categoria_id = COALESCE(?, categoria_id), activo = COALESCE(?, activo) WHERE codigo = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] reservarStockEnLote(Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) return new int[0];
+
+        List<Object[]> parametros = cantidades.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getKey(), e.getValue()})
+                .collect(Collectors.toList());
+        return jdbcTemplate.batchUpdate(RESERVAR_STOCK, parametros);
+    }
+
+    @Override
+    public void liberarStockEnLote(Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) return;
+
+        List<Object[]> parametros = cantidades.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getKey()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(LIBERAR_STOCK, parametros);
+    }
+
+    @Override
+    public int ajustarStock(Long id, int cantidad) {
+        return jdbcTemplate.update(AJUSTAR_STOCK, cantidad, id, cantidad);
+    }
+
+    @Override
+    public int[] ajustarStockEnLote(Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) return new int[0];
+
+        List<Object[]> parametros = cantidades.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getKey(), e.getValue()})
+                .collect(Collectors.toList());
+        return jdbcTemplate.batchUpdate(AJUSTAR_STOCK, parametros);
+    }
+
+    @Override
+    public Set<String> obtenerCodigos() {
+        Set<String> codigos = new HashSet<>();
+        jdbcTemplate.query("SELECT codigo FROM productos", rs -> {
+            codigos.add(rs.getString(1));
+        });
+        return codigos;
+    }
+
+    @Override
+    public void insertarEnLote(List<Producto> productos) {
+        if (productos.isEmpty()) return;
+
+        LocalDateTime ahora = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERTAR, productos, productos.size(), (ps, producto) -> {
+            ps.setString(1, producto.getCodigo());
+            ps.setString(2, producto.getNombre());
+            ps.setString(3, producto.getDescripcion());
+            ps.setBigDecimal(4, producto.getPrecio());
+            ps.setInt(5, producto.getStock());
+            ps.setInt(6, producto.getStockCritico());
+            ps.setString(7, producto.getImagen());
+            ps.setObject(8, producto.getCategoria() != null ? producto.getCategoria().getId() : null, Types.BIGINT);
+            ps.setTimestamp(9, Timestamp.valueOf(ahora));
+            ps.setBoolean(10, producto.getActivo());
+        });
+    }
+
+    @Override
+    public void actualizarPorCodigoEnLote(List<Producto> productos) {
+        if (productos.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(ACTUALIZAR_POR_CODIGO, productos, productos.size(), (ps, producto) -> {
+            ps.setString(1, producto.getNombre());
+            ps.setString(2, producto.getDescripcion());
+            ps.setBigDecimal(3, producto.getPrecio());
+            ps.setObject(4, producto.getStock(), Types.INTEGER);
+            ps.setObject(5, producto.getStockCritico(), Types.INTEGER);
+            ps.setString(6, producto.getImagen());
+            ps.setObject(7, producto.getCategoria() != null ? producto.getCategoria().getId() : null, Types.BIGINT);
+            ps.setObject(8, producto.getActivo(), Types.BOOLEAN);
+            ps.setString(9, producto.getCodigo());
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.dto.FiltroProductos;
+import com.taxsiito.backend.model.Producto;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Especificaciones JPA para consultas dinámicas de Producto.
+ */
+public final class ProductoSpecifications {
+
+    private ProductoSpecifications() {
+    }
+
+    /**
+     * Productos activos que cumplen los filtros no nulos de FiltroProductos.
+     */
+    public static Specification<Producto> conFiltro(FiltroProductos filtro) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            predicados.add(cb.isTrue(root.get("activo")));
+            if (filtro.getCategoriaId() != null) {
+                predicados.add(cb.equal(root.get("categoria").get("id"), filtro.getCategoriaId()));
+            }
+            if (filtro.getPrecioMin() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("precio"), filtro.getPrecioMin()));
+            }
+            if (filtro.getPrecioMax() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("precio"), filtro.getPrecioMax()));
+            }
+            if (Boolean.TRUE.equals(filtro.getConStock())) {
+                predicados.add(cb.greaterThan(root.get("stock"), 0));
+            }
+            if (Boolean.TRUE.equals(filtro.getStockBajo())) {
+                predicados.add(cb.lessThanOrEqualTo(root.<Integer>get("stock"), root.<Integer>get("stockCritico")));
+            }
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Productos posteriores al cursor en orden (campo, id), ambos ascendentes o ambos descendentes.
+     */
+    public static <T extends Comparable<? super T>> Specification<Producto> despuesDe(String campo, T valor,
+                                                                                     Long id, boolean ascendente) {
+        return (root, query, cb) -> {
+            Expression<T> columna = root.get(campo);
+            Expression<Long> columnaId = root.get("id");
+            if (ascendente) {
+                return cb.or(
+                        cb.greaterThan(columna, valor),
+                        cb.and(cb.equal(columna, valor), cb.greaterThan(columnaId, id)));
+            }
+            return cb.or(
+                    cb.lessThan(columna, valor),
+                    cb.and(cb.equal(columna, valor), cb.lessThan(columnaId, id)));
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.model.Secuencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para operaciones de Secuencia.
+ */
+@Repository
+public interface SecuenciaRepository extends JpaRepository<Secuencia, String> {
+
+    /**
+     * Crea la secuencia con valor 0 si no existe.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO secuencias (nombre, valor) VALUES (:nombre, 0)", nativeQuery = true)
+    int crearSiNoExiste(@Param("nombre") String nombre);
+
+    /**
+     * Avanza la secuencia en un bloque de forma atómica y deja el nuevo valor en LAST_INSERT_ID().
+     */
+    @Modifying
+    @Query(value = "UPDATE secuencias SET valor = LAST_INSERT_ID(valor + :bloque) WHERE nombre = :nombre",
+           nativeQuery = true)
+    int avanzar(@Param("nombre") String nombre, @Param("bloque") long bloque);
+
+    /**
+     * Bloquea la fila de la secuencia en modo compartido hasta el fin de la transacción.
+     * Devuelve null si la fila no existe.
+     */
+    @Query(value = "SELECT valor FROM secuencias WHERE nombre = :nombre LOCK IN SHARE MODE", nativeQuery = true)
+    Long bloquearCompartido(@Param("nombre") String nombre);
+
+    /**
+     * Bloquea la fila de la secuencia en modo exclusivo hasta el fin de la transacción.
+     * Devuelve null si la fila no existe.
+     */
+    @Query(value = "SELECT valor FROM secuencias WHERE nombre = :nombre FOR UPDATE", nativeQuery = true)
+    Long bloquearExclusivo(@Param("nombre") String nombre);
+
+    /**
+     * Obtiene el valor dejado por {@link #avanzar} en la misma conexión.
+     */
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Long ultimoValor();
+}
@@ -2,10 +2,16 @@ package com.taxsiito.backend.repository;
 
 import com.taxsiito.backend.model.Usuario;
 import com.taxsiito.backend.model.enums.Rol;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para operaciones CRUD de Usuario.
@@ -47,5 +53,16 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      * Busca usuarios cuyo nombre o apellido contenga el texto dado.
      */
     List<Usuario> findByNombresContainingIgnoreCaseOrApellidosContainingIgnoreCase(String nombres, String apellidos);
-}
 
+    /**
+     * Recorre usuarios (con región y comuna) en orden de ID con un cursor de solo avance,
+     * para exportaciones. Los filtros nulos se ignoran.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM Usuario u LEFT JOIN FETCH u.region LEFT JOIN FETCH u.comuna " +
+           "WHERE (:rol IS NULL OR u.rol = :rol) AND (:activo IS NULL OR u.activo = :activo) ORDER BY u.id")
+    Stream<Usuario> streamParaExportar(@Param("rol") Rol rol, @Param("activo") Boolean activo);
+}
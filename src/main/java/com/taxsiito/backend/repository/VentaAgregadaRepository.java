@@ -0,0 +1,55 @@
+package com.taxsiito.backend.repository;
+
+import com.taxsiito.backend.model.VentaAgregada;
+import com.taxsiito.backend.model.enums.GranularidadVenta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio para los buckets de ventas agregadas.
+ */
+@Repository
+public interface VentaAgregadaRepository extends JpaRepository<VentaAgregada, Long> {
+
+    /**
+     * Suma (o resta, con valores negativos) los montos de un bucket, creándolo si no existe.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ventas_agregadas (granularidad, inicio, cantidad_ordenes, subtotal, descuento, total) " +
+                   "VALUES (:granularidad, :inicio, :cantidad, :subtotal, :descuento, :total) " +
+                   "ON DUPLICATE KEY UPDATE cantidad_ordenes = cantidad_ordenes + :cantidad, " +
+                   "subtotal = subtotal + :subtotal, descuento = descuento + :descuento, total = total + :total",
+           nativeQuery = true)
+    int acumular(@Param("granularidad") String granularidad,
+                 @Param("inicio") LocalDateTime inicio,
+                 @Param("cantidad") long cantidad,
+                 @Param("subtotal") BigDecimal subtotal,
+                 @Param("descuento") BigDecimal descuento,
+                 @Param("total") BigDecimal total);
+
+    /**
+     * Obtiene los buckets de una granularidad que comienzan en [desde, hasta).
+     */
+    List<VentaAgregada> findByGranularidadAndInicioGreaterThanEqualAndInicioLessThanOrderByInicioAsc(
+            GranularidadVenta granularidad, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Suma el total de ventas combinando buckets por hora en los bordes del rango
+     * ([horaInicio, diaInicio) y [diaFin, horaFin)) con buckets diarios en [diaInicio, diaFin).
+     */
+    @Query("SELECT COALESCE(SUM(v.total), 0) FROM VentaAgregada v WHERE " +
+           "(v.granularidad = com.taxsiito.backend.model.enums.GranularidadVenta.HORA AND " +
+           " ((v.inicio >= :horaInicio AND v.inicio < :diaInicio) OR (v.inicio >= :diaFin AND v.inicio < :horaFin))) " +
+           "OR (v.granularidad = com.taxsiito.backend.model.enums.GranularidadVenta.DIA AND " +
+           " v.inicio >= :diaInicio AND v.inicio < :diaFin)")
+    BigDecimal sumarTotal(@Param("horaInicio") LocalDateTime horaInicio,
+                          @Param("diaInicio") LocalDateTime diaInicio,
+                          @Param("diaFin") LocalDateTime diaFin,
+                          @Param("horaFin") LocalDateTime horaFin);
+}
@@ -0,0 +1,191 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.RechazoStockDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Agrupa los ajustes de stock por producto durante una ventana corta y los aplica juntos:
+ * un UPDATE condicional por producto con la suma de sus ajustes, todos en un lote JDBC.
+ * Un SKU escaneado cientos de veces por minuto toma el bloqueo de su fila una vez por
+ * ventana en lugar de una vez por unidad.
+ *
+ * Si la suma de un producto no se puede aplicar (stock insuficiente o producto inexistente),
+ * sus ajustes se reintentan uno por uno en orden de llegada, de modo que solo se rechazan
+ * los que realmente no caben. Los rechazos se informan a quien espera el ajuste y quedan
+ * registrados para quienes encolaron sin esperar.
+ *
+ * Las ventanas se procesan en un hilo propio para no competir con las demás tareas programadas.
+ */
+@Component
+@Slf4j
+public class AcumuladorStock {
+
+    private static final int MAXIMO_RECHAZOS = 1000;
+
+    private final StockService stockService;
+    private final long esperaMs;
+    private final Map<Long, List<Ajuste>> pendientes = new ConcurrentHashMap<>();
+    private final Deque<RechazoStockDTO> rechazos = new ArrayDeque<>();
+    private final ScheduledExecutorService vaciador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "acumulador-stock");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public AcumuladorStock(StockService stockService,
+                           @Value("${taxsiito.productos.stock.ventana-ms:200}") long ventanaMs,
+                           @Value("${taxsiito.productos.stock.espera-ms:5000}") long esperaMs) {
+        this.stockService = stockService;
+        this.esperaMs = esperaMs;
+        vaciador.scheduleWithFixedDelay(this::vaciarSeguro, ventanaMs, ventanaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Encola un ajuste. El futuro se completa cuando el ajuste queda confirmado en la base de
+     * datos, o con error si se rechaza.
+     */
+    public CompletableFuture<Void> encolar(Long productoId, int cantidad) {
+        Ajuste ajuste = new Ajuste(cantidad);
+        pendientes.compute(productoId, (id, lista) -> {
+            List<Ajuste> ajustes = lista != null ? lista : new ArrayList<>();
+            ajustes.add(ajuste);
+            return ajustes;
+        });
+        return ajuste.resultado;
+    }
+
+    /**
+     * Encola un ajuste y espera a que quede confirmado; lanza una excepción si se rechaza
+     * o si no se aplica dentro del tiempo de espera configurado.
+     */
+    public void ajustar(Long productoId, int cantidad) {
+        try {
+            encolar(productoId, cantidad).get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("El ajuste de stock sigue pendiente; consulte el producto más tarde");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ajuste de stock interrumpido");
+        }
+    }
+
+    /**
+     * Ajustes rechazados recientes, del más antiguo al más reciente.
+     */
+    public List<RechazoStockDTO> obtenerRechazos() {
+        synchronized (rechazos) {
+            return new ArrayList<>(rechazos);
+        }
+    }
+
+    /**
+     * Aplica todos los ajustes pendientes. Cada producto se retira del mapa de forma atómica:
+     * un ajuste que llega después queda para la ventana siguiente.
+     */
+    synchronized void vaciar() {
+        Map<Long, List<Ajuste>> lote = new LinkedHashMap<>();
+        for (Long productoId : pendientes.keySet()) {
+            List<Ajuste> ajustes = pendientes.remove(productoId);
+            if (ajustes != null) {
+                lote.put(productoId, ajustes);
+            }
+        }
+        if (lote.isEmpty()) return;
+
+        Map<Long, Integer> sumas = new LinkedHashMap<>();
+        lote.forEach((productoId, ajustes) ->
+                sumas.put(productoId, ajustes.stream().mapToInt(a -> a.cantidad).sum()));
+
+        Set<Long> rechazados;
+        try {
+            rechazados = stockService.ajustarEnLote(sumas);
+        } catch (RuntimeException e) {
+            log.error("No se pudo aplicar el lote de ajustes de stock", e);
+            lote.forEach((productoId, ajustes) ->
+                    ajustes.forEach(a -> rechazar(productoId, a, "No se pudo aplicar el ajuste")));
+            return;
+        }
+
+        lote.forEach((productoId, ajustes) -> {
+            if (!rechazados.contains(productoId)) {
+                ajustes.forEach(a -> a.resultado.complete(null));
+                return;
+            }
+            for (Ajuste ajuste : ajustes) {
+                try {
+                    stockService.ajustar(productoId, ajuste.cantidad);
+                    ajuste.resultado.complete(null);
+                } catch (RuntimeException e) {
+                    rechazar(productoId, ajuste, e.getMessage());
+                }
+            }
+        });
+        log.debug("Ajustes de stock aplicados: {} productos, {} rechazados", lote.size(), rechazados.size());
+    }
+
+    private void vaciarSeguro() {
+        try {
+            vaciar();
+        } catch (RuntimeException e) {
+            log.error("Error al vaciar los ajustes de stock", e);
+        }
+    }
+
+    private void rechazar(Long productoId, Ajuste ajuste, String error) {
+        synchronized (rechazos) {
+            rechazos.addLast(RechazoStockDTO.builder()
+                    .productoId(productoId)
+                    .cantidad(ajuste.cantidad)
+                    .error(error)
+                    .fecha(LocalDateTime.now())
+                    .build());
+            if (rechazos.size() > MAXIMO_RECHAZOS) {
+                rechazos.removeFirst();
+            }
+        }
+        ajuste.resultado.completeExceptionally(new RuntimeException(error));
+    }
+
+    /**
+     * Aplica lo pendiente antes de detener la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        vaciador.shutdown();
+        try {
+            vaciador.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        vaciarSeguro();
+    }
+
+    private static class Ajuste {
+        private final int cantidad;
+        private final CompletableFuture<Void> resultado = new CompletableFuture<>();
+
+        Ajuste(int cantidad) {
+            this.cantidad = cantidad;
+        }
+    }
+}
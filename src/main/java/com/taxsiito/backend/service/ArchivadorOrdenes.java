@@ -0,0 +1,84 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.repository.OrdenArchivoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Archivador de órdenes terminadas.
+ * Mueve por lotes las órdenes ENTREGADA y CANCELADA más antiguas que la edad configurada
+ * a las tablas de archivo. Cada lote es una transacción independiente, así que el proceso
+ * puede interrumpirse en cualquier momento sin dejar órdenes a medio mover.
+ */
+@Component
+@Slf4j
+public class ArchivadorOrdenes {
+
+    private static final int MAXIMO_LOTES_POR_CICLO = 200;
+
+    private final OrdenArchivoRepository archivoRepository;
+    private final HistorialOrdenesCache historialCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int dias;
+    private final int tamanioLote;
+
+    public ArchivadorOrdenes(OrdenArchivoRepository archivoRepository,
+                             HistorialOrdenesCache historialCache,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${taxsiito.ordenes.archivo.habilitado:true}") boolean habilitado,
+                             @Value("${taxsiito.ordenes.archivo.dias:180}") int dias,
+                             @Value("${taxsiito.ordenes.archivo.tamanio-lote:500}") int tamanioLote) {
+        this.archivoRepository = archivoRepository;
+        this.historialCache = historialCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.dias = dias;
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Archiva periódicamente las órdenes terminadas antiguas.
+     */
+    @Scheduled(fixedDelayString = "${taxsiito.ordenes.archivo.intervalo-ms:3600000}",
+               initialDelayString = "${taxsiito.ordenes.archivo.intervalo-ms:3600000}")
+    public void archivarProgramado() {
+        if (habilitado) {
+            archivar();
+        }
+    }
+
+    /**
+     * Archiva órdenes terminadas antiguas hasta agotarlas o alcanzar el máximo de lotes por ciclo.
+     * Retorna la cantidad de órdenes archivadas.
+     */
+    public int archivar() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(dias);
+        int total = 0;
+        for (int i = 0; i < MAXIMO_LOTES_POR_CICLO; i++) {
+            Integer archivadas = transactionTemplate.execute(status -> archivarLote(limite));
+            total += archivadas != null ? archivadas : 0;
+            if (archivadas == null || archivadas < tamanioLote) break;
+        }
+        if (total > 0) {
+            log.info("Órdenes archivadas: {}", total);
+        }
+        return total;
+    }
+
+    private int archivarLote(LocalDateTime limite) {
+        Map<Long, Long> ordenes = archivoRepository.bloquearArchivables(limite, tamanioLote);
+        if (ordenes.isEmpty()) return 0;
+
+        archivoRepository.archivar(ordenes.keySet());
+        historialCache.invalidar(new HashSet<>(ordenes.values()));
+        return ordenes.size();
+    }
+}
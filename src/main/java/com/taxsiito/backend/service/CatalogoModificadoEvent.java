@@ -0,0 +1,57 @@
+package com.taxsiito.backend.service;
+
+import lombok.Getter;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Evento publicado por los servicios que modifican productos o categorías.
+ * CatalogoService lo procesa después del commit para actualizar el catálogo en memoria.
+ */
+@Getter
+public class CatalogoModificadoEvent {
+
+    /**
+     * Productos modificados; null cuando el cambio afecta a todo el catálogo (por ejemplo, una categoría).
+     */
+    private final Set<Long> productoIds;
+
+    /**
+     * true si solo cambió el stock de los productos: basta con releer ese valor.
+     */
+    private final boolean soloStock;
+
+    private CatalogoModificadoEvent(Set<Long> productoIds, boolean soloStock) {
+        this.productoIds = productoIds;
+        this.soloStock = soloStock;
+    }
+
+    /**
+     * Cambio de los productos dados.
+     */
+    public static CatalogoModificadoEvent productos(Collection<Long> productoIds) {
+        return new CatalogoModificadoEvent(Set.copyOf(productoIds), false);
+    }
+
+    /**
+     * Cambio solo del stock de los productos dados.
+     */
+    public static CatalogoModificadoEvent stock(Collection<Long> productoIds) {
+        return new CatalogoModificadoEvent(Set.copyOf(productoIds), true);
+    }
+
+    /**
+     * Cambio que requiere recargar todo el catálogo.
+     */
+    public static CatalogoModificadoEvent completo() {
+        return new CatalogoModificadoEvent(null, false);
+    }
+
+    public boolean esCompleto() {
+        return productoIds == null;
+    }
+
+    public boolean esSoloStock() {
+        return soloStock;
+    }
+}
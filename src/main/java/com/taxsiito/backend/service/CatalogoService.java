@@ -0,0 +1,374 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.model.Producto;
+import com.taxsiito.backend.repository.ProductoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Catálogo en memoria de los productos activos, indexado por ID, código y categoría.
+ *
+ * El catálogo es una {@link Instantanea} inmutable (índices, lista de activos y versión) que se
+ * publica con una sola referencia volátil: cada lectura ve los tres índices y la versión del mismo
+ * momento, sin locks ni conexiones. Los cambios confirmados llegan como eventos que se encolan
+ * después del commit y los aplica un único hilo escritor, de modo que el checkout no espera al
+ * catálogo ni ocupa una segunda conexión. El escritor agrupa los eventos pendientes y construye la
+ * instantánea siguiente copiando la actual y reemplazando solo las entradas afectadas: los cambios
+ * de stock releen solo el stock de esos productos y los demás cambios releen esos productos.
+ * Como cada lectura trae el valor confirmado (no una diferencia), aplicarla dos veces o sobre una
+ * recarga que ya la incluye no altera el resultado. La versión viaja como ETag e incluye un
+ * identificador de arranque, así que otra instancia o un reinicio nunca repiten una etiqueta.
+ *
+ * Los DTO del catálogo se comparten entre lecturas y no deben modificarse.
+ */
+@Service
+@Slf4j
+public class CatalogoService {
+
+    private final ProductoRepository productoRepository;
+    private final List<OyenteCatalogo> oyentes;
+
+    private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+    private volatile Instantanea actual;
+
+    private final BlockingQueue<CatalogoModificadoEvent> pendientes = new LinkedBlockingQueue<>();
+    private final ExecutorService escritor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "catalogo-escritor");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public CatalogoService(ProductoRepository productoRepository, List<OyenteCatalogo> oyentes) {
+        this.productoRepository = productoRepository;
+        this.oyentes = oyentes;
+    }
+
+    /**
+     * Carga el catálogo al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        asegurarCargado();
+    }
+
+    /**
+     * Recarga completa periódica, para recoger cambios hechos fuera de los servicios.
+     */
+    @Scheduled(fixedDelayString = "${taxsiito.catalogo.recarga-ms:600000}",
+               initialDelayString = "${taxsiito.catalogo.recarga-ms:600000}")
+    public void programarRecarga() {
+        encolar(CatalogoModificadoEvent.completo());
+    }
+
+    /**
+     * Encola un cambio confirmado para el hilo escritor; no bloquea a quien hizo el cambio.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        encolar(evento);
+    }
+
+    /**
+     * Catálogo actual. Quien necesite datos y versión coherentes entre sí debe leer ambos de la misma instantánea.
+     */
+    public Instantanea obtener() {
+        asegurarCargado();
+        return actual;
+    }
+
+    /**
+     * Carga el catálogo si todavía no se ha cargado; las estructuras derivadas lo necesitan antes de responder.
+     */
+    public void asegurarCargado() {
+        if (actual == null) {
+            synchronized (this) {
+                if (actual == null) {
+                    recargar();
+                }
+            }
+        }
+    }
+
+    /**
+     * Productos activos ordenados por ID.
+     */
+    public List<ProductoDTO> obtenerActivos() {
+        return obtener().getActivos();
+    }
+
+    /**
+     * Producto activo por ID.
+     */
+    public Optional<ProductoDTO> obtenerPorId(Long id) {
+        return obtener().obtenerPorId(id);
+    }
+
+    /**
+     * Producto activo por código.
+     */
+    public Optional<ProductoDTO> obtenerPorCodigo(String codigo) {
+        return obtener().obtenerPorCodigo(codigo);
+    }
+
+    /**
+     * Productos activos de una categoría, ordenados por ID.
+     */
+    public List<ProductoDTO> obtenerPorCategoria(Long categoriaId) {
+        return obtener().obtenerPorCategoria(categoriaId);
+    }
+
+    /**
+     * Detiene el hilo escritor al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void encolar(CatalogoModificadoEvent evento) {
+        if (escritor.isShutdown()) return;
+        pendientes.add(evento);
+        escritor.execute(this::procesarPendientesSeguro);
+    }
+
+    private void procesarPendientesSeguro() {
+        try {
+            procesarPendientes();
+        } catch (RuntimeException e) {
+            log.error("No se pudo actualizar el catálogo; se corregirá en la próxima recarga", e);
+        }
+    }
+
+    /**
+     * Aplica todos los eventos encolados. Una recarga completa cubre a los anteriores; si no
+     * hay, se releen juntos los productos modificados y el stock de los demás.
+     */
+    synchronized void procesarPendientes() {
+        List<CatalogoModificadoEvent> lote = new ArrayList<>();
+        pendientes.drainTo(lote);
+        if (lote.isEmpty()) return;
+
+        if (actual == null || lote.stream().anyMatch(CatalogoModificadoEvent::esCompleto)) {
+            recargar();
+            return;
+        }
+
+        Set<Long> releer = new LinkedHashSet<>();
+        Set<Long> releerStock = new LinkedHashSet<>();
+        for (CatalogoModificadoEvent evento : lote) {
+            (evento.esSoloStock() ? releerStock : releer).addAll(evento.getProductoIds());
+        }
+        // Los productos que se releen completos ya traen el stock confirmado
+        releerStock.removeAll(releer);
+
+        Map<Long, ProductoDTO> cambiados = new LinkedHashMap<>();
+        if (!releer.isEmpty()) {
+            for (Producto producto : productoRepository.findConCategoriaByIdIn(releer)) {
+                if (Boolean.TRUE.equals(producto.getActivo())) {
+                    cambiados.put(producto.getId(), ProductoDTO.fromEntity(producto));
+                }
+            }
+        }
+        Instantanea anterior = actual;
+        if (!releerStock.isEmpty()) {
+            for (Object[] fila : productoRepository.findStockByIdIn(releerStock)) {
+                ProductoDTO producto = anterior.porId.get((Long) fila[0]);
+                int stock = ((Number) fila[1]).intValue();
+                if (producto != null && producto.getStock() != stock) {
+                    cambiados.put(producto.getId(), conStock(producto, stock));
+                }
+            }
+        }
+
+        Set<Long> quitados = new HashSet<>(releer);
+        quitados.removeAll(cambiados.keySet());
+        quitados.retainAll(anterior.porId.keySet());
+        if (cambiados.isEmpty() && quitados.isEmpty()) return;
+
+        actual = anterior.con(cambiados, quitados);
+
+        Set<Long> afectados = new HashSet<>(cambiados.keySet());
+        afectados.addAll(quitados);
+        oyentes.forEach(oyente -> oyente.alActualizar(afectados, cambiados.values()));
+    }
+
+    /**
+     * Reemplaza el catálogo con los productos activos de la base de datos. Los eventos
+     * encolados hasta ahora quedan incluidos en la lectura y se descartan.
+     */
+    private synchronized void recargar() {
+        pendientes.clear();
+        List<ProductoDTO> activos = productoRepository.findActivosConCategoria().stream()
+                .map(ProductoDTO::fromEntity)
+                .collect(Collectors.toList());
+
+        Instantanea nueva = Instantanea.de(instancia, actual != null ? actual.numero + 1 : 1, activos);
+        actual = nueva;
+
+        oyentes.forEach(oyente -> oyente.alRecargar(nueva.getActivos()));
+        log.debug("Catálogo recargado: {} productos activos, versión {}", nueva.getActivos().size(), nueva.getVersion());
+    }
+
+    /**
+     * Copia del producto con otro stock (los DTO publicados no se modifican).
+     */
+    private static ProductoDTO conStock(ProductoDTO producto, int stock) {
+        return ProductoDTO.builder()
+                .id(producto.getId())
+                .codigo(producto.getCodigo())
+                .nombre(producto.getNombre())
+                .descripcion(producto.getDescripcion())
+                .precio(producto.getPrecio())
+                .stock(stock)
+                .stockCritico(producto.getStockCritico())
+                .imagen(producto.getImagen())
+                .categoriaId(producto.getCategoriaId())
+                .categoriaNombre(producto.getCategoriaNombre())
+                .activo(producto.getActivo())
+                .stockBajo(producto.getStockCritico() != null && stock <= producto.getStockCritico())
+                .build();
+    }
+
+    /**
+     * Estado inmutable del catálogo en una versión. Se reemplaza completo en cada cambio.
+     */
+    public static final class Instantanea {
+
+        private final String instancia;
+        private final long numero;
+        private final Map<Long, ProductoDTO> porId;
+        private final Map<String, ProductoDTO> porCodigo;
+        private final Map<Long, List<ProductoDTO>> porCategoria;
+        private final List<ProductoDTO> activos;
+
+        private Instantanea(String instancia, long numero, TreeMap<Long, ProductoDTO> porId,
+                            Map<String, ProductoDTO> porCodigo, Map<Long, List<ProductoDTO>> porCategoria) {
+            this.instancia = instancia;
+            this.numero = numero;
+            this.porId = Collections.unmodifiableMap(porId);
+            this.porCodigo = Collections.unmodifiableMap(porCodigo);
+            this.porCategoria = Collections.unmodifiableMap(porCategoria);
+            this.activos = List.copyOf(porId.values());
+        }
+
+        /**
+         * Instantánea con los productos dados.
+         */
+        static Instantanea de(String instancia, long numero, Collection<ProductoDTO> productos) {
+            TreeMap<Long, ProductoDTO> porId = new TreeMap<>();
+            Map<String, ProductoDTO> porCodigo = new HashMap<>();
+            Map<Long, List<ProductoDTO>> porCategoria = new HashMap<>();
+            for (ProductoDTO producto : productos) {
+                porId.put(producto.getId(), producto);
+                porCodigo.put(producto.getCodigo(), producto);
+            }
+            Map<Long, List<ProductoDTO>> agrupados = porId.values().stream()
+                    .filter(producto -> producto.getCategoriaId() != null)
+                    .collect(Collectors.groupingBy(ProductoDTO::getCategoriaId));
+            agrupados.forEach((categoriaId, lista) -> porCategoria.put(categoriaId, List.copyOf(lista)));
+            return new Instantanea(instancia, numero, porId, porCodigo, porCategoria);
+        }
+
+        /**
+         * Versión siguiente con los productos cambiados reemplazados y los quitados eliminados.
+         * Copia los índices (tiempo lineal) y rehace solo las categorías afectadas.
+         */
+        Instantanea con(Map<Long, ProductoDTO> cambiados, Set<Long> quitados) {
+            TreeMap<Long, ProductoDTO> nuevoPorId = new TreeMap<>(porId);
+            Map<String, ProductoDTO> nuevoPorCodigo = new HashMap<>(porCodigo);
+            Map<Long, List<ProductoDTO>> nuevoPorCategoria = new HashMap<>(porCategoria);
+
+            Set<Long> categorias = new HashSet<>();
+            Set<Long> tocados = new HashSet<>(quitados);
+            tocados.addAll(cambiados.keySet());
+            for (Long id : tocados) {
+                ProductoDTO anterior = nuevoPorId.remove(id);
+                if (anterior != null) {
+                    nuevoPorCodigo.remove(anterior.getCodigo(), anterior);
+                    categorias.add(anterior.getCategoriaId());
+                }
+            }
+            for (ProductoDTO producto : cambiados.values()) {
+                nuevoPorId.put(producto.getId(), producto);
+                nuevoPorCodigo.put(producto.getCodigo(), producto);
+                categorias.add(producto.getCategoriaId());
+            }
+            categorias.remove(null);
+
+            for (Long categoriaId : categorias) {
+                TreeMap<Long, ProductoDTO> productos = new TreeMap<>();
+                porCategoria.getOrDefault(categoriaId, List.of()).stream()
+                        .filter(producto -> !tocados.contains(producto.getId()))
+                        .forEach(producto -> productos.put(producto.getId(), producto));
+                cambiados.values().stream()
+                        .filter(producto -> categoriaId.equals(producto.getCategoriaId()))
+                        .forEach(producto -> productos.put(producto.getId(), producto));
+                if (productos.isEmpty()) {
+                    nuevoPorCategoria.remove(categoriaId);
+                } else {
+                    nuevoPorCategoria.put(categoriaId, List.copyOf(productos.values()));
+                }
+            }
+            return new Instantanea(instancia, numero + 1, nuevoPorId, nuevoPorCodigo, nuevoPorCategoria);
+        }
+
+        /**
+         * Versión de esta instantánea: identificador de arranque y número de cambios aplicados.
+         */
+        public String getVersion() {
+            return instancia + "-" + numero;
+        }
+
+        /**
+         * Productos activos ordenados por ID (lista inmutable, no se copia en cada lectura).
+         */
+        public List<ProductoDTO> getActivos() {
+            return activos;
+        }
+
+        public Optional<ProductoDTO> obtenerPorId(Long id) {
+            return Optional.ofNullable(porId.get(id));
+        }
+
+        public Optional<ProductoDTO> obtenerPorCodigo(String codigo) {
+            return Optional.ofNullable(porCodigo.get(codigo));
+        }
+
+        /**
+         * Productos activos de una categoría, ordenados por ID.
+         */
+        public List<ProductoDTO> obtenerPorCategoria(Long categoriaId) {
+            return porCategoria.getOrDefault(categoriaId, List.of());
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.taxsiito.backend.service;
 import com.taxsiito.backend.dto.CategoriaDTO;
 import com.taxsiito.backend.model.Categoria;
 import com.taxsiito.backend.repository.CategoriaRepository;
+import com.taxsiito.backend.repository.ProductoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -19,6 +21,9 @@ import java.util.stream.Collectors;
 public class CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
+    private final ProductoRepository productoRepository;
+    private final EstadisticasCategoriasService estadisticasService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene todas las categorías.
@@ -27,6 +32,7 @@ public class CategoriaService {
     public List<CategoriaDTO> obtenerTodas() {
         return categoriaRepository.findAll().stream()
                 .map(CategoriaDTO::fromEntity)
+                .map(estadisticasService::completar)
                 .collect(Collectors.toList());
     }
 
@@ -37,6 +43,7 @@ public class CategoriaService {
     public List<CategoriaDTO> obtenerActivas() {
         return categoriaRepository.findByActivaTrue().stream()
                 .map(CategoriaDTO::fromEntity)
+                .map(estadisticasService::completar)
                 .collect(Collectors.toList());
     }
 
@@ -46,7 +53,8 @@ public class CategoriaService {
     @Transactional(readOnly = true)
     public Optional<CategoriaDTO> obtenerPorId(Long id) {
         return categoriaRepository.findById(id)
-                .map(CategoriaDTO::fromEntity);
+                .map(CategoriaDTO::fromEntity)
+                .map(estadisticasService::completar);
     }
 
     /**
@@ -57,7 +65,8 @@ public class CategoriaService {
             throw new RuntimeException("Ya existe una categoría con ese nombre");
         }
         Categoria guardada = categoriaRepository.save(categoria);
-        return CategoriaDTO.fromEntity(guardada);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
+        return estadisticasService.completar(CategoriaDTO.fromEntity(guardada));
     }
 
     /**
@@ -83,22 +92,26 @@ public class CategoriaService {
         }
 
         Categoria guardada = categoriaRepository.save(existente);
-        return CategoriaDTO.fromEntity(guardada);
+        // Los productos del snapshot incluyen el nombre de su categoría
+        eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
+        return estadisticasService.completar(CategoriaDTO.fromEntity(guardada));
     }
 
     /**
      * Elimina una categoría.
      */
     public void eliminar(Long id) {
-        Categoria categoria = categoriaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
-        
-        // Verificar que no tenga productos asociados
-        if (categoria.getProductos() != null && !categoria.getProductos().isEmpty()) {
+        if (!categoriaRepository.existsById(id)) {
+            throw new RuntimeException("Categoría no encontrada");
+        }
+
+        // Verificar que no tenga productos asociados sin cargar la colección
+        if (productoRepository.existsByCategoriaId(id)) {
             throw new RuntimeException("No se puede eliminar: la categoría tiene productos asociados");
         }
         
         categoriaRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
     }
 }
 
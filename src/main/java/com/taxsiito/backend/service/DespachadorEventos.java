@@ -0,0 +1,165 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.EventoOrdenDTO;
+import com.taxsiito.backend.model.EventoSalida;
+import com.taxsiito.backend.repository.EventoSalidaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Despachador del outbox de eventos de órdenes.
+ * Drena los eventos pendientes en lotes, en orden de ID, y los entrega a cada
+ * destino configurado. Cada lote se procesa en su propia transacción con las
+ * filas bloqueadas (SKIP LOCKED), así que varias instancias pueden convivir.
+ *
+ * La entrega se registra por destino: un destino que ya aceptó un evento no lo vuelve a
+ * recibir cuando otro falla. Si un destino rechaza el lote, se le reenvía evento por evento
+ * hasta el primero que falla; ese evento suma un intento y los siguientes esperan al próximo
+ * ciclo, para conservar el orden. Al llegar al máximo de intentos el evento se descarta
+ * (queda con su último error para revisión) y el resto del outbox sigue avanzando.
+ */
+@Component
+@Slf4j
+public class DespachadorEventos {
+
+    private static final int MAXIMO_LOTES_POR_CICLO = 20;
+    private static final int LARGO_MAXIMO_ERROR = 500;
+
+    private final EventoSalidaRepository eventoRepository;
+    private final List<DestinoEventos> destinos;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+    private final int diasRetencion;
+    private final int maximoIntentos;
+
+    public DespachadorEventos(EventoSalidaRepository eventoRepository,
+                              List<DestinoEventos> destinos,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${taxsiito.eventos.tamanio-lote:100}") int tamanioLote,
+                              @Value("${taxsiito.eventos.retencion-dias:7}") int diasRetencion,
+                              @Value("${taxsiito.eventos.max-intentos:10}") int maximoIntentos) {
+        this.eventoRepository = eventoRepository;
+        this.destinos = destinos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanioLote = tamanioLote;
+        this.diasRetencion = diasRetencion;
+        this.maximoIntentos = maximoIntentos;
+    }
+
+    /**
+     * Despacha los eventos pendientes hasta vaciar el outbox o alcanzar el máximo de lotes por ciclo.
+     */
+    @Scheduled(fixedDelayString = "${taxsiito.eventos.intervalo-ms:1000}")
+    public void despachar() {
+        if (destinos.isEmpty()) return;
+
+        for (int i = 0; i < MAXIMO_LOTES_POR_CICLO; i++) {
+            Integer despachados = transactionTemplate.execute(status -> despacharLote());
+            if (despachados == null || despachados < tamanioLote) return;
+        }
+    }
+
+    /**
+     * Elimina periódicamente los eventos ya despachados más antiguos que la retención.
+     */
+    @Scheduled(fixedDelayString = "${taxsiito.eventos.limpieza-ms:3600000}")
+    public void limpiar() {
+        Integer eliminados = transactionTemplate.execute(status ->
+                eventoRepository.eliminarDespachadosAntesDe(LocalDateTime.now().minusDays(diasRetencion)));
+        if (eliminados != null && eliminados > 0) {
+            log.debug("Eventos despachados eliminados: {}", eliminados);
+        }
+    }
+
+    /**
+     * Entrega un lote a todos los destinos. Retorna cuántos eventos quedaron despachados o
+     * descartados; si alguno quedó pendiente retorna 0 para reintentar en el próximo ciclo.
+     */
+    private int despacharLote() {
+        List<EventoSalida> lote = eventoRepository.bloquearPendientes(tamanioLote);
+        if (lote.isEmpty()) return 0;
+
+        boolean completo = true;
+        for (DestinoEventos destino : destinos) {
+            completo &= entregar(destino, lote);
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        int cerrados = 0;
+        for (EventoSalida evento : lote) {
+            if (Boolean.TRUE.equals(evento.getDescartado())) {
+                cerrados++;
+            } else if (entregados(evento).containsAll(nombresDestinos())) {
+                evento.setFechaDespacho(ahora);
+                cerrados++;
+            }
+        }
+        return completo ? cerrados : 0;
+    }
+
+    /**
+     * Entrega al destino los eventos del lote que aún no aceptó. Retorna false si alguno quedó pendiente.
+     */
+    private boolean entregar(DestinoEventos destino, List<EventoSalida> lote) {
+        List<EventoSalida> faltantes = lote.stream()
+                .filter(evento -> !Boolean.TRUE.equals(evento.getDescartado()))
+                .filter(evento -> !entregados(evento).contains(destino.getNombre()))
+                .collect(Collectors.toList());
+        if (faltantes.isEmpty()) return true;
+
+        try {
+            destino.enviar(faltantes.stream().map(EventoOrdenDTO::fromEntity).collect(Collectors.toList()));
+            faltantes.forEach(evento -> marcarEntregado(evento, destino));
+            return true;
+        } catch (Exception e) {
+            log.warn("Error al despachar {} eventos al destino {}: {}; se reintenta evento por evento",
+                    faltantes.size(), destino.getNombre(), e.getMessage());
+        }
+
+        for (EventoSalida evento : faltantes) {
+            if (Boolean.TRUE.equals(evento.getDescartado())) continue;
+            try {
+                destino.enviar(List.of(EventoOrdenDTO.fromEntity(evento)));
+                marcarEntregado(evento, destino);
+            } catch (Exception e) {
+                registrarFallo(evento, destino, e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void registrarFallo(EventoSalida evento, DestinoEventos destino, Exception e) {
+        String error = destino.getNombre() + ": " + e.getMessage();
+        evento.setIntentos(evento.getIntentos() + 1);
+        evento.setUltimoError(error.length() > LARGO_MAXIMO_ERROR ? error.substring(0, LARGO_MAXIMO_ERROR) : error);
+        if (evento.getIntentos() >= maximoIntentos) {
+            evento.setDescartado(true);
+            log.error("Evento {} descartado tras {} intentos: {}", evento.getId(), evento.getIntentos(), error);
+        }
+    }
+
+    private static void marcarEntregado(EventoSalida evento, DestinoEventos destino) {
+        String previos = evento.getDestinosEntregados();
+        evento.setDestinosEntregados(previos == null || previos.isEmpty()
+                ? destino.getNombre()
+                : previos + "," + destino.getNombre());
+    }
+
+    private static Set<String> entregados(EventoSalida evento) {
+        String previos = evento.getDestinosEntregados();
+        return previos == null || previos.isEmpty() ? Set.of() : Set.of(previos.split(","));
+    }
+
+    private Set<String> nombresDestinos() {
+        return destinos.stream().map(DestinoEventos::getNombre).collect(Collectors.toSet());
+    }
+}
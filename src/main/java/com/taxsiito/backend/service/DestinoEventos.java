@@ -0,0 +1,25 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.EventoOrdenDTO;
+import java.util.List;
+
+/**
+ * Destino al que el despachador entrega los eventos de órdenes.
+ * La entrega es al menos una vez: el despachador registra qué destinos aceptaron cada evento,
+ * pero un evento puede repetirse si el destino falla después de procesarlo (o al reenviar
+ * evento por evento un lote rechazado), por lo que los consumidores deben descartar
+ * duplicados por ID de evento.
+ */
+public interface DestinoEventos {
+
+    /**
+     * Nombre del destino, usado en logs y errores.
+     */
+    String getNombre();
+
+    /**
+     * Entrega un lote de eventos en orden. Una excepción hace que se reintenten los eventos
+     * del lote que este destino no había aceptado.
+     */
+    void enviar(List<EventoOrdenDTO> eventos) throws Exception;
+}
@@ -0,0 +1,47 @@
+package com.taxsiito.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taxsiito.backend.dto.EventoOrdenDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino que agrega los eventos como líneas NDJSON a un archivo local.
+ */
+@Component
+@ConditionalOnProperty(name = "taxsiito.eventos.destinos.archivo", havingValue = "true")
+public class DestinoEventosArchivo implements DestinoEventos {
+
+    private final ObjectMapper objectMapper;
+    private final Path ruta;
+
+    public DestinoEventosArchivo(ObjectMapper objectMapper,
+                                 @Value("${taxsiito.eventos.archivo.ruta:eventos-ordenes.ndjson}") String ruta) {
+        this.objectMapper = objectMapper;
+        this.ruta = Path.of(ruta);
+    }
+
+    @Override
+    public String getNombre() {
+        return "archivo";
+    }
+
+    @Override
+    public synchronized void enviar(List<EventoOrdenDTO> eventos) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (EventoOrdenDTO evento : eventos) {
+                writer.write(objectMapper.writeValueAsString(evento));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.EventoOrdenDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Destino en proceso: publica cada evento como ApplicationEvent para que las
+ * integraciones internas lo reciban con {@code @EventListener EventoOrdenDTO},
+ * y guarda los últimos eventos en memoria para inspección y pruebas.
+ */
+@Component
+@ConditionalOnProperty(name = "taxsiito.eventos.destinos.memoria", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DestinoEventosMemoria implements DestinoEventos {
+
+    private static final int MAXIMO_RECIENTES = 1000;
+
+    private final ApplicationEventPublisher publisher;
+    private final Deque<EventoOrdenDTO> recientes = new ArrayDeque<>();
+
+    @Override
+    public String getNombre() {
+        return "memoria";
+    }
+
+    @Override
+    public void enviar(List<EventoOrdenDTO> eventos) {
+        for (EventoOrdenDTO evento : eventos) {
+            publisher.publishEvent(evento);
+            synchronized (recientes) {
+                recientes.addLast(evento);
+                if (recientes.size() > MAXIMO_RECIENTES) {
+                    recientes.removeFirst();
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene los últimos eventos entregados, del más antiguo al más reciente.
+     */
+    public List<EventoOrdenDTO> obtenerRecientes() {
+        synchronized (recientes) {
+            return new ArrayList<>(recientes);
+        }
+    }
+}
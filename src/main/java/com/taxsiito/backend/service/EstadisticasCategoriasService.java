@@ -0,0 +1,104 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.CategoriaDTO;
+import com.taxsiito.backend.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conteos y precios de productos por categoría, calculados con una sola consulta agrupada
+ * y guardados en cache hasta el siguiente cambio confirmado de productos o categorías
+ * (cualquier escritura que publica CatalogoModificadoEvent, incluidos los cambios de stock).
+ * El cálculo se hace en la primera lectura después de la invalidación.
+ */
+@Service
+@RequiredArgsConstructor
+public class EstadisticasCategoriasService {
+
+    private static final Estadisticas SIN_PRODUCTOS = new Estadisticas(0, 0, null, null, 0);
+
+    private final ProductoRepository productoRepository;
+
+    private final AtomicLong generacion = new AtomicLong();
+    private volatile Cache cache;
+
+    /**
+     * Completa el DTO con las estadísticas de su categoría.
+     */
+    public CategoriaDTO completar(CategoriaDTO categoria) {
+        Estadisticas estadisticas = obtener().getOrDefault(categoria.getId(), SIN_PRODUCTOS);
+        categoria.setCantidadProductos(estadisticas.total);
+        categoria.setProductosActivos(estadisticas.activos);
+        categoria.setPrecioMin(estadisticas.precioMin);
+        categoria.setPrecioMax(estadisticas.precioMax);
+        categoria.setProductosStockBajo(estadisticas.stockBajo);
+        return categoria;
+    }
+
+    /**
+     * Descarta las estadísticas después de cada cambio confirmado del catálogo.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        generacion.incrementAndGet();
+    }
+
+    /**
+     * Estadísticas por categoría. Un cálculo que empezó antes de una invalidación queda
+     * guardado con la generación antigua, así que la lectura siguiente lo vuelve a calcular.
+     */
+    private Map<Long, Estadisticas> obtener() {
+        long actual = generacion.get();
+        Cache vigente = cache;
+        if (vigente != null && vigente.generacion == actual) {
+            return vigente.porCategoria;
+        }
+
+        Map<Long, Estadisticas> porCategoria = new HashMap<>();
+        for (Object[] fila : productoRepository.obtenerEstadisticasPorCategoria()) {
+            porCategoria.put((Long) fila[0], new Estadisticas(
+                    entero(fila[1]), entero(fila[2]), (BigDecimal) fila[3], (BigDecimal) fila[4], entero(fila[5])));
+        }
+        cache = new Cache(actual, Collections.unmodifiableMap(porCategoria));
+        return porCategoria;
+    }
+
+    private static int entero(Object valor) {
+        return valor != null ? ((Number) valor).intValue() : 0;
+    }
+
+    private static class Cache {
+        private final long generacion;
+        private final Map<Long, Estadisticas> porCategoria;
+
+        Cache(long generacion, Map<Long, Estadisticas> porCategoria) {
+            this.generacion = generacion;
+            this.porCategoria = porCategoria;
+        }
+    }
+
+    private static class Estadisticas {
+        private final int total;
+        private final int activos;
+        private final BigDecimal precioMin;
+        private final BigDecimal precioMax;
+        private final int stockBajo;
+
+        Estadisticas(int total, int activos, BigDecimal precioMin, BigDecimal precioMax, int stockBajo) {
+            this.total = total;
+            this.activos = activos;
+            this.precioMin = precioMin;
+            this.precioMax = precioMax;
+            this.stockBajo = stockBajo;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.model.enums.EstadoOrden;
+import com.taxsiito.backend.repository.OrdenArchivoRepository;
+import com.taxsiito.backend.repository.OrdenRepository;
+import com.taxsiito.backend.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores en memoria de órdenes por estado.
+ * Se cargan con una sola consulta GROUP BY, se mantienen con cada cambio de estado
+ * confirmado en OrdenService y se reconcilian periódicamente con la base de datos
+ * para corregir desvíos (por ejemplo, órdenes borradas en cascada con su usuario).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EstadisticasOrdenesService {
+
+    private final OrdenRepository ordenRepository;
+    private final OrdenArchivoRepository archivoRepository;
+
+    private final Map<EstadoOrden, AtomicLong> contadores = crearContadores();
+
+    /**
+     * Registra una orden nueva cuando la transacción actual confirme.
+     */
+    public void registrarCreacion(EstadoOrden estado) {
+        Transacciones.despuesDelCommit(() -> contadores.get(estado).incrementAndGet());
+    }
+
+    /**
+     * Registra un cambio de estado cuando la transacción actual confirme.
+     */
+    public void registrarTransicion(EstadoOrden anterior, EstadoOrden nuevo) {
+        registrarTransicion(anterior, nuevo, 1);
+    }
+
+    /**
+     * Registra el cambio de estado de varias órdenes cuando la transacción actual confirme.
+     */
+    public void registrarTransicion(EstadoOrden anterior, EstadoOrden nuevo, long cantidad) {
+        if (anterior == nuevo || cantidad == 0) return;
+        Transacciones.despuesDelCommit(() -> {
+            contadores.get(anterior).addAndGet(-cantidad);
+            contadores.get(nuevo).addAndGet(cantidad);
+        });
+    }
+
+    /**
+     * Cantidad de órdenes en el estado dado, sin consultar la base de datos.
+     */
+    public long contar(EstadoOrden estado) {
+        return contadores.get(estado).get();
+    }
+
+    /**
+     * Cantidad de órdenes por estado, sin consultar la base de datos.
+     */
+    public Map<EstadoOrden, Long> obtener() {
+        Map<EstadoOrden, Long> resultado = new EnumMap<>(EstadoOrden.class);
+        contadores.forEach((estado, contador) -> resultado.put(estado, contador.get()));
+        return resultado;
+    }
+
+    /**
+     * Carga los contadores al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconciliar();
+    }
+
+    /**
+     * Recalcula los contadores con una consulta agrupada por estado sobre las órdenes
+     * activas y otra sobre las archivadas, leídas en la misma transacción.
+     */
+    @Scheduled(fixedDelayString = "${taxsiito.ordenes.estadisticas.reconciliacion-ms:300000}",
+               initialDelayString = "${taxsiito.ordenes.estadisticas.reconciliacion-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reconciliar() {
+        Map<EstadoOrden, Long> conteos = new EnumMap<>(EstadoOrden.class);
+        for (Object[] fila : ordenRepository.contarAgrupadoPorEstado()) {
+            conteos.put((EstadoOrden) fila[0], (Long) fila[1]);
+        }
+        archivoRepository.contarPorEstado().forEach((estado, cantidad) -> conteos.merge(estado, cantidad, Long::sum));
+
+        contadores.forEach((estado, contador) -> {
+            long real = conteos.getOrDefault(estado, 0L);
+            long previo = contador.getAndSet(real);
+            if (previo != real) {
+                log.debug("Contador de órdenes {} corregido: {} -> {}", estado, previo, real);
+            }
+        });
+    }
+
+    private static Map<EstadoOrden, AtomicLong> crearContadores() {
+        Map<EstadoOrden, AtomicLong> mapa = new EnumMap<>(EstadoOrden.class);
+        for (EstadoOrden estado : EstadoOrden.values()) {
+            mapa.put(estado, new AtomicLong());
+        }
+        return mapa;
+    }
+}
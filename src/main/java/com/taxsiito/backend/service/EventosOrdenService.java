@@ -0,0 +1,80 @@
+package com.taxsiito.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taxsiito.backend.model.EventoSalida;
+import com.taxsiito.backend.model.Orden;
+import com.taxsiito.backend.model.enums.EstadoOrden;
+import com.taxsiito.backend.model.enums.TipoEventoOrden;
+import com.taxsiito.backend.repository.EventoSalidaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio que escribe eventos de órdenes en el outbox transaccional.
+ * Debe llamarse dentro de la transacción que modifica la orden: el evento
+ * se confirma o se revierte junto con el cambio.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class EventosOrdenService {
+
+    private final EventoSalidaRepository eventoRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Registra la creación de una orden.
+     */
+    public void registrarCreacion(Orden orden) {
+        eventoRepository.save(crearEvento(TipoEventoOrden.ORDEN_CREADA, orden, null));
+    }
+
+    /**
+     * Registra un cambio de estado de una orden.
+     */
+    public void registrarCambioEstado(Orden orden, EstadoOrden anterior) {
+        eventoRepository.save(crearEvento(TipoEventoOrden.ESTADO_ACTUALIZADO, orden, anterior));
+    }
+
+    /**
+     * Registra el mismo cambio de estado para varias órdenes.
+     */
+    public void registrarCambiosEstado(List<Orden> ordenes, Map<Long, EstadoOrden> anteriores) {
+        List<EventoSalida> eventos = new ArrayList<>(ordenes.size());
+        for (Orden orden : ordenes) {
+            eventos.add(crearEvento(TipoEventoOrden.ESTADO_ACTUALIZADO, orden, anteriores.get(orden.getId())));
+        }
+        eventoRepository.saveAll(eventos);
+    }
+
+    private EventoSalida crearEvento(TipoEventoOrden tipo, Orden orden, EstadoOrden anterior) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("ordenId", orden.getId());
+        datos.put("numeroOrden", orden.getNumeroOrden());
+        datos.put("usuarioId", orden.getUsuario() != null ? orden.getUsuario().getId() : null);
+        datos.put("estado", orden.getEstado());
+        datos.put("estadoAnterior", anterior);
+        datos.put("subtotal", orden.getSubtotal());
+        datos.put("descuento", orden.getDescuento());
+        datos.put("total", orden.getTotal());
+        datos.put("regionEnvio", orden.getRegionEnvio());
+        datos.put("fechaCreacion", orden.getFechaCreacion());
+
+        try {
+            return EventoSalida.builder()
+                    .tipo(tipo)
+                    .ordenId(orden.getId())
+                    .numeroOrden(orden.getNumeroOrden())
+                    .payload(objectMapper.writeValueAsString(datos))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar el evento de la orden", e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.taxsiito.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taxsiito.backend.dto.FiltroOrdenes;
+import com.taxsiito.backend.dto.ItemOrdenDTO;
+import com.taxsiito.backend.dto.OrdenDTO;
+import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.dto.UsuarioDTO;
+import com.taxsiito.backend.model.Orden;
+import com.taxsiito.backend.model.Producto;
+import com.taxsiito.backend.model.Usuario;
+import com.taxsiito.backend.model.enums.Rol;
+import com.taxsiito.backend.repository.ItemOrdenRepository;
+import com.taxsiito.backend.repository.OrdenRepository;
+import com.taxsiito.backend.repository.ProductoRepository;
+import com.taxsiito.backend.repository.UsuarioRepository;
+import com.taxsiito.backend.util.EscritorFilas;
+import com.taxsiito.backend.util.EscritorFilas.Formato;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Servicio de exportación masiva en CSV o NDJSON.
+ * Lee con un cursor de solo avance y escribe cada fila directo a la respuesta,
+ * limpiando el contexto de persistencia por bloques: el uso de memoria no depende
+ * de la cantidad de filas. Los campos exportados son los de los DTO de la API.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportacionService {
+
+    private static final int TAMANIO_BLOQUE = 500;
+
+    private final OrdenRepository ordenRepository;
+    private final ItemOrdenRepository itemOrdenRepository;
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Exporta las órdenes que cumplen el filtro. En NDJSON incluye los items,
+     * cargados con una consulta por bloque de órdenes.
+     */
+    public void exportarOrdenes(FiltroOrdenes filtro, Formato formato, OutputStream salida) throws IOException {
+        EscritorFilas<OrdenDTO> escritor = new EscritorFilas<>(salida, objectMapper, formato, OrdenDTO.class);
+        escritor.escribirCabecera();
+
+        try (Stream<Orden> ordenes = ordenRepository.streamConFiltro(filtro)) {
+            Iterator<Orden> it = ordenes.iterator();
+            List<Orden> bloque = new ArrayList<>(TAMANIO_BLOQUE);
+            while (it.hasNext()) {
+                bloque.add(it.next());
+                if (bloque.size() == TAMANIO_BLOQUE || !it.hasNext()) {
+                    for (OrdenDTO dto : aDTOs(bloque, formato == Formato.NDJSON)) {
+                        escritor.escribir(dto);
+                    }
+                    bloque.clear();
+                    terminarBloque(escritor);
+                }
+            }
+        }
+        escritor.flush();
+    }
+
+    /**
+     * Exporta productos, opcionalmente filtrados por estado activo y categoría.
+     */
+    public void exportarProductos(Boolean activo, Long categoriaId, Formato formato, OutputStream salida)
+            throws IOException {
+        try (Stream<Producto> productos = productoRepository.streamParaExportar(activo, categoriaId)) {
+            exportar(productos, ProductoDTO::fromEntity, ProductoDTO.class, formato, salida);
+        }
+    }
+
+    /**
+     * Exporta usuarios, opcionalmente filtrados por rol y estado activo.
+     */
+    public void exportarUsuarios(Rol rol, Boolean activo, Formato formato, OutputStream salida) throws IOException {
+        try (Stream<Usuario> usuarios = usuarioRepository.streamParaExportar(rol, activo)) {
+            exportar(usuarios, UsuarioDTO::fromEntity, UsuarioDTO.class, formato, salida);
+        }
+    }
+
+    private <E, D> void exportar(Stream<E> filas, Function<E, D> mapeo, Class<D> tipo, Formato formato,
+                                 OutputStream salida) throws IOException {
+        EscritorFilas<D> escritor = new EscritorFilas<>(salida, objectMapper, formato, tipo);
+        escritor.escribirCabecera();
+
+        int escritas = 0;
+        Iterator<E> it = filas.iterator();
+        while (it.hasNext()) {
+            escritor.escribir(mapeo.apply(it.next()));
+            if (++escritas % TAMANIO_BLOQUE == 0) {
+                terminarBloque(escritor);
+            }
+        }
+        escritor.flush();
+    }
+
+    /**
+     * Envía el bloque al cliente y libera las entidades ya escritas.
+     */
+    private void terminarBloque(EscritorFilas<?> escritor) throws IOException {
+        escritor.flush();
+        entityManager.clear();
+    }
+
+    private List<OrdenDTO> aDTOs(List<Orden> ordenes, boolean conItems) {
+        if (!conItems) {
+            return ordenes.stream()
+                    .map(orden -> OrdenDTO.fromEntity(orden, null))
+                    .collect(Collectors.toList());
+        }
+        List<Long> ids = ordenes.stream().map(Orden::getId).collect(Collectors.toList());
+        Map<Long, List<ItemOrdenDTO>> itemsPorOrden = itemOrdenRepository.findConProductoByOrdenIdIn(ids).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrden().getId(),
+                        Collectors.mapping(ItemOrdenDTO::fromEntity, Collectors.toList())));
+        return ordenes.stream()
+                .map(orden -> OrdenDTO.fromEntity(orden, itemsPorOrden.getOrDefault(orden.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+}
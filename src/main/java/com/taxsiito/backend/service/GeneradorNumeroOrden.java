@@ -0,0 +1,13 @@
+package com.taxsiito.backend.service;
+
+/**
+ * Genera números de orden únicos (columna numero_orden, máximo 20 caracteres).
+ * La implementación se elige con la propiedad taxsiito.ordenes.numeracion.
+ */
+public interface GeneradorNumeroOrden {
+
+    /**
+     * Devuelve el siguiente número de orden. Debe ser seguro entre hilos.
+     */
+    String siguiente();
+}
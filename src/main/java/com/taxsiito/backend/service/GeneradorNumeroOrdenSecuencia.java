@@ -0,0 +1,79 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.repository.SecuenciaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de números de orden basado en una secuencia de la base de datos.
+ * Reserva bloques de números en una transacción propia y los entrega desde memoria
+ * con un contador atómico, por lo que solo consulta la base una vez por bloque.
+ * Los bloques son disjuntos entre instancias; los números no usados de un bloque se pierden
+ * al reiniciar. Formato: "ORD-" + 12 dígitos (16 caracteres en total).
+ */
+@Component
+@ConditionalOnProperty(name = "taxsiito.ordenes.numeracion", havingValue = "secuencia")
+public class GeneradorNumeroOrdenSecuencia implements GeneradorNumeroOrden {
+
+    private static final String SECUENCIA = "ordenes";
+
+    private final SecuenciaRepository secuenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long tamanioBloque;
+
+    // Bloque vacío (inicio > máximo): el primer número ya reserva un bloque en la base de datos
+    private volatile Bloque bloque = new Bloque(1, 0);
+
+    public GeneradorNumeroOrdenSecuencia(SecuenciaRepository secuenciaRepository,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${taxsiito.ordenes.bloque-secuencia:100}") long tamanioBloque) {
+        this.secuenciaRepository = secuenciaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanioBloque = tamanioBloque;
+    }
+
+    @Override
+    public String siguiente() {
+        while (true) {
+            Bloque actual = bloque;
+            long valor = actual.siguiente.getAndIncrement();
+            if (valor <= actual.maximo) {
+                return String.format("ORD-%012d", valor);
+            }
+            recargar(actual);
+        }
+    }
+
+    /**
+     * Reserva un bloque nuevo si ningún otro hilo lo hizo ya.
+     */
+    private synchronized void recargar(Bloque agotado) {
+        if (bloque != agotado) return;
+
+        Long maximo = transactionTemplate.execute(status -> {
+            secuenciaRepository.crearSiNoExiste(SECUENCIA);
+            secuenciaRepository.avanzar(SECUENCIA, tamanioBloque);
+            return secuenciaRepository.ultimoValor();
+        });
+        bloque = new Bloque(maximo - tamanioBloque + 1, maximo);
+    }
+
+    /**
+     * Rango de números reservado en memoria.
+     */
+    private static class Bloque {
+        private final AtomicLong siguiente;
+        private final long maximo;
+
+        Bloque(long inicio, long maximo) {
+            this.siguiente = new AtomicLong(inicio);
+            this.maximo = maximo;
+        }
+    }
+}
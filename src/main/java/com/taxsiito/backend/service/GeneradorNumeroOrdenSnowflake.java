@@ -0,0 +1,107 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.repository.SecuenciaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de números de orden estilo Snowflake, sin consultas a la base de datos.
+ * Cada ID de 63 bits combina milisegundos desde 2025-01-01 (41 bits), el ID de nodo
+ * (10 bits) y una secuencia por milisegundo (12 bits). El estado se avanza con CAS,
+ * sin locks; si se agota la secuencia o el reloj retrocede, se toma prestado el
+ * milisegundo siguiente en vez de repetir valores.
+ *
+ * El ID de nodo se toma de taxsiito.ordenes.nodo-id; si no está configurado, cada instancia
+ * reserva uno al iniciar avanzando la secuencia "nodos-orden" de la base de datos, de modo que
+ * dos instancias activas no comparten nodo salvo que una siga viva después de 1024 arranques.
+ * Si la reserva falla, la aplicación no inicia.
+ * Formato: "ORD-" + 13 caracteres en base 36 (17 caracteres en total).
+ */
+@Component
+@ConditionalOnProperty(name = "taxsiito.ordenes.numeracion", havingValue = "snowflake", matchIfMissing = true)
+@Slf4j
+public class GeneradorNumeroOrdenSnowflake implements GeneradorNumeroOrden {
+
+    static final long EPOCA = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int BITS_NODO = 10;
+    static final int BITS_SECUENCIA = 12;
+    static final long MAX_NODO = (1L << BITS_NODO) - 1;
+    private static final int LARGO = 13;
+    private static final String SECUENCIA_NODOS = "nodos-orden";
+
+    private final long nodoId;
+
+    // (milisegundos << BITS_SECUENCIA) | secuencia del último ID entregado
+    private final AtomicLong ultimo = new AtomicLong();
+
+    @Autowired
+    public GeneradorNumeroOrdenSnowflake(@Value("${taxsiito.ordenes.nodo-id:-1}") long nodoId,
+                                         SecuenciaRepository secuenciaRepository,
+                                         PlatformTransactionManager transactionManager) {
+        this(nodoId >= 0 ? nodoId : reservarNodo(secuenciaRepository, transactionManager));
+    }
+
+    GeneradorNumeroOrdenSnowflake(long nodoId) {
+        if (nodoId < 0 || nodoId > MAX_NODO) {
+            throw new IllegalArgumentException("taxsiito.ordenes.nodo-id debe estar entre 0 y " + MAX_NODO);
+        }
+        this.nodoId = nodoId;
+    }
+
+    @Override
+    public String siguiente() {
+        return formatear(siguienteId());
+    }
+
+    /**
+     * Calcula el siguiente ID numérico.
+     */
+    long siguienteId() {
+        long ahora = System.currentTimeMillis() - EPOCA;
+        long previo;
+        long siguiente;
+        do {
+            previo = ultimo.get();
+            long base = ahora << BITS_SECUENCIA;
+            siguiente = base > previo ? base : previo + 1;
+        } while (!ultimo.compareAndSet(previo, siguiente));
+
+        long milis = siguiente >>> BITS_SECUENCIA;
+        long secuencia = siguiente & ((1L << BITS_SECUENCIA) - 1);
+        return (milis << (BITS_NODO + BITS_SECUENCIA)) | (nodoId << BITS_SECUENCIA) | secuencia;
+    }
+
+    private static String formatear(long id) {
+        String base36 = Long.toString(id, 36).toUpperCase(Locale.ROOT);
+        return "ORD-" + "0".repeat(Math.max(0, LARGO - base36.length())) + base36;
+    }
+
+    /**
+     * Reserva el siguiente ID de nodo de la secuencia compartida, en una transacción propia.
+     */
+    private static long reservarNodo(SecuenciaRepository secuenciaRepository,
+                                     PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Long valor = transactionTemplate.execute(status -> {
+            secuenciaRepository.crearSiNoExiste(SECUENCIA_NODOS);
+            secuenciaRepository.avanzar(SECUENCIA_NODOS, 1);
+            return secuenciaRepository.ultimoValor();
+        });
+        if (valor == null) {
+            throw new IllegalStateException("No se pudo reservar un ID de nodo para la numeración de órdenes");
+        }
+        long nodoId = (valor - 1) % (MAX_NODO + 1);
+        log.info("taxsiito.ordenes.nodo-id no configurado; se reservó el nodo {} desde la base de datos", nodoId);
+        return nodoId;
+    }
+}
@@ -0,0 +1,143 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.OrdenDTO;
+import com.taxsiito.backend.dto.PaginaDTO;
+import com.taxsiito.backend.util.CacheLRU;
+import com.taxsiito.backend.util.Transacciones;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache acotada de la primera página del historial de órdenes de cada usuario.
+ *
+ * Las escrituras invalidan o corrigen la entrada del usuario cuando su transacción
+ * confirma. Cada cambio avanza un reloj global y deja su marca en la entrada; una
+ * lectura que empezó antes de un cambio confirmado no puede guardar su página,
+ * así que la cache nunca queda con datos anteriores a un commit.
+ */
+@Component
+public class HistorialOrdenesCache {
+
+    private final CacheLRU<Long, Entrada> cache;
+    private final long ttlMs;
+    private final AtomicLong reloj = new AtomicLong();
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    public HistorialOrdenesCache(@Value("${taxsiito.ordenes.historial.capacidad:5000}") int capacidad,
+                                 @Value("${taxsiito.ordenes.historial.ttl-ms:600000}") long ttlMs) {
+        this.cache = new CacheLRU<>(capacidad);
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Obtiene la primera página del usuario desde la cache o la carga con el proveedor dado.
+     */
+    public PaginaDTO<OrdenDTO> obtener(Long usuarioId, Supplier<PaginaDTO<OrdenDTO>> cargar) {
+        Entrada entrada = cache.obtener(usuarioId);
+        if (entrada != null && entrada.pagina != null && !entrada.vencida(ttlMs)) {
+            aciertos.incrementAndGet();
+            return entrada.pagina;
+        }
+
+        fallos.incrementAndGet();
+        long inicio = reloj.get();
+        PaginaDTO<OrdenDTO> pagina = cargar.get();
+        guardarSiVigente(usuarioId, inicio, pagina);
+        return pagina;
+    }
+
+    /**
+     * Descarta la página del usuario cuando la transacción actual confirme.
+     */
+    public void invalidar(Long usuarioId) {
+        Transacciones.despuesDelCommit(() -> marcar(usuarioId));
+    }
+
+    /**
+     * Descarta las páginas de varios usuarios cuando la transacción actual confirme.
+     */
+    public void invalidar(Collection<Long> usuarioIds) {
+        Transacciones.despuesDelCommit(() -> usuarioIds.forEach(id -> marcar(id)));
+    }
+
+    /**
+     * Reemplaza la orden en la página cacheada de su usuario cuando la transacción actual confirme.
+     * Un cambio de estado no altera el orden del historial, así que basta con sustituir el elemento.
+     */
+    public void actualizar(OrdenDTO orden) {
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (this) {
+                Entrada actual = cache.obtener(orden.getUsuarioId());
+                PaginaDTO<OrdenDTO> pagina = actual != null ? actual.pagina : null;
+                if (pagina != null) {
+                    List<OrdenDTO> items = pagina.getItems().stream()
+                            .map(item -> item.getId().equals(orden.getId()) ? orden : item)
+                            .collect(Collectors.toList());
+                    pagina = PaginaDTO.<OrdenDTO>builder()
+                            .items(items)
+                            .tamanio(pagina.getTamanio())
+                            .hayMas(pagina.getHayMas())
+                            .siguienteCursor(pagina.getSiguienteCursor())
+                            .build();
+                }
+                cache.guardar(orden.getUsuarioId(), new Entrada(reloj.incrementAndGet(), actual != null
+                        ? actual.cargadaEn : System.currentTimeMillis(), pagina));
+            }
+        });
+    }
+
+    /**
+     * Métricas de la cache: aciertos, fallos, evicciones por capacidad, invalidaciones y tamaño.
+     */
+    public Map<String, Long> obtenerEstadisticas() {
+        Map<String, Long> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("aciertos", aciertos.get());
+        estadisticas.put("fallos", fallos.get());
+        estadisticas.put("evicciones", cache.getEvicciones());
+        estadisticas.put("invalidaciones", invalidaciones.get());
+        estadisticas.put("entradas", (long) cache.tamanio());
+        return estadisticas;
+    }
+
+    private synchronized void marcar(Long usuarioId) {
+        invalidaciones.incrementAndGet();
+        cache.guardar(usuarioId, new Entrada(reloj.incrementAndGet(), System.currentTimeMillis(), null));
+    }
+
+    private synchronized void guardarSiVigente(Long usuarioId, long inicio, PaginaDTO<OrdenDTO> pagina) {
+        Entrada actual = cache.obtener(usuarioId);
+        // Sin entrada no se sabe si hubo cambios del usuario: solo se guarda si nada cambió en absoluto
+        boolean vigente = actual != null ? actual.version <= inicio : reloj.get() == inicio;
+        if (vigente) {
+            cache.guardar(usuarioId, new Entrada(reloj.get(), System.currentTimeMillis(), pagina));
+        }
+    }
+
+    /**
+     * Página cacheada (null tras una invalidación) y versión del reloj en que se escribió.
+     */
+    private static class Entrada {
+        private final long version;
+        private final long cargadaEn;
+        private final PaginaDTO<OrdenDTO> pagina;
+
+        Entrada(long version, long cargadaEn, PaginaDTO<OrdenDTO> pagina) {
+            this.version = version;
+            this.cargadaEn = cargadaEn;
+            this.pagina = pagina;
+        }
+
+        boolean vencida(long ttlMs) {
+            return System.currentTimeMillis() - cargadaEn > ttlMs;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.taxsiito.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taxsiito.backend.dto.OrdenDTO;
+import com.taxsiito.backend.model.ClaveIdempotencia;
+import com.taxsiito.backend.repository.ClaveIdempotenciaRepository;
+import com.taxsiito.backend.util.CacheLRU;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Servicio de idempotencia para el checkout (cabecera Idempotency-Key).
+ * Las claves recientes viven en una cache LRU acotada; la tabla claves_idempotencia
+ * es la fuente de verdad entre reinicios e instancias. Un duplicado concurrente
+ * espera el resultado de la primera solicitud en lugar de repetir el checkout.
+ */
+@Service
+@Slf4j
+public class IdempotenciaService {
+
+    private static final int LARGO_MAXIMO_CLAVE = 100;
+
+    private final ClaveIdempotenciaRepository claveRepository;
+    private final OrdenService ordenService;
+    private final ObjectMapper objectMapper;
+    private final CacheLRU<String, Entrada> cache;
+    private final Duration ttl;
+    private final long esperaMs;
+
+    public IdempotenciaService(ClaveIdempotenciaRepository claveRepository,
+                               OrdenService ordenService,
+                               ObjectMapper objectMapper,
+                               @Value("${taxsiito.idempotencia.capacidad:10000}") int capacidad,
+                               @Value("${taxsiito.idempotencia.ttl-horas:24}") long ttlHoras,
+                               @Value("${taxsiito.idempotencia.espera-ms:30000}") long esperaMs) {
+        this.claveRepository = claveRepository;
+        this.ordenService = ordenService;
+        this.objectMapper = objectMapper;
+        this.cache = new CacheLRU<>(capacidad);
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.esperaMs = esperaMs;
+    }
+
+    /**
+     * Ejecuta el checkout una sola vez por usuario y clave.
+     * Si la clave ya se usó con la misma solicitud devuelve la orden guardada sin ejecutar el checkout.
+     */
+    public Resultado ejecutar(Long usuarioId, String clave, String huella, Supplier<OrdenDTO> checkout) {
+        if (clave.isBlank() || clave.length() > LARGO_MAXIMO_CLAVE) {
+            throw new RuntimeException("La clave de idempotencia debe tener entre 1 y " + LARGO_MAXIMO_CLAVE + " caracteres");
+        }
+
+        String llave = usuarioId + ":" + clave;
+        Entrada nueva = new Entrada(huella, System.currentTimeMillis(), new CompletableFuture<>());
+        Entrada entrada = cache.obtenerOCalcular(llave, k -> nueva);
+
+        if (entrada != nueva) {
+            if (entrada.vencida(ttl)) {
+                cache.eliminar(llave, entrada);
+                return ejecutar(usuarioId, clave, huella, checkout);
+            }
+            if (!entrada.getHuella().equals(huella)) {
+                throw new RuntimeException("La clave de idempotencia ya se usó con otra solicitud");
+            }
+            return new Resultado(esperar(entrada.getFuturo()), true);
+        }
+
+        try {
+            Optional<OrdenDTO> guardada = buscarGuardada(usuarioId, clave, huella);
+            if (guardada.isPresent()) {
+                entrada.getFuturo().complete(guardada.get());
+                return new Resultado(guardada.get(), true);
+            }
+
+            OrdenDTO orden;
+            boolean repetido = false;
+            try {
+                orden = checkout.get();
+            } catch (DataIntegrityViolationException e) {
+                // Otra instancia confirmó la misma clave mientras esta esperaba el índice único
+                orden = buscarGuardada(usuarioId, clave, huella).orElseThrow(() -> e);
+                repetido = true;
+            }
+            entrada.getFuturo().complete(orden);
+            return new Resultado(orden, repetido);
+        } catch (RuntimeException e) {
+            // Un checkout fallido no deja nada confirmado: un reintento debe volver a ejecutarse
+            cache.eliminar(llave, entrada);
+            entrada.getFuturo().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Calcula el SHA-256 del cuerpo de la solicitud serializado como JSON.
+     */
+    public String calcularHuella(Object solicitud) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(solicitud);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("No se pudo calcular la huella de la solicitud", e);
+        }
+    }
+
+    /**
+     * Elimina periódicamente las claves más antiguas que el TTL.
+     */
+    @Scheduled(fixedDelayString = "${taxsiito.idempotencia.limpieza-ms:3600000}")
+    @Transactional
+    public void limpiar() {
+        int eliminadas = claveRepository.eliminarAntesDe(LocalDateTime.now().minus(ttl));
+        if (eliminadas > 0) {
+            log.debug("Claves de idempotencia vencidas eliminadas: {}", eliminadas);
+        }
+    }
+
+    private Optional<OrdenDTO> buscarGuardada(Long usuarioId, String clave, String huella) {
+        Optional<ClaveIdempotencia> guardada = claveRepository.findByUsuarioIdAndClave(usuarioId, clave);
+        if (guardada.isEmpty() || guardada.get().getOrdenId() == null) {
+            return Optional.empty();
+        }
+        if (!guardada.get().getHuella().equals(huella)) {
+            throw new RuntimeException("La clave de idempotencia ya se usó con otra solicitud");
+        }
+        return ordenService.obtenerPorId(guardada.get().getOrdenId());
+    }
+
+    private OrdenDTO esperar(CompletableFuture<OrdenDTO> futuro) {
+        try {
+            return futuro.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new SolicitudEnProcesoException("La solicitud original con esta clave aún está en proceso");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Solicitud interrumpida");
+        }
+    }
+
+    /**
+     * Entrada en memoria de una clave: huella de la solicitud y resultado (posiblemente pendiente).
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Entrada {
+        private final String huella;
+        private final long creadaEn;
+        private final CompletableFuture<OrdenDTO> futuro;
+
+        boolean vencida(Duration ttl) {
+            return System.currentTimeMillis() - creadaEn > ttl.toMillis();
+        }
+    }
+
+    /**
+     * La solicitud original con la misma clave sigue en curso; el cliente debe reintentar más tarde.
+     */
+    public static class SolicitudEnProcesoException extends RuntimeException {
+        public SolicitudEnProcesoException(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    /**
+     * Resultado del checkout idempotente.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Resultado {
+        private final OrdenDTO orden;
+        private final boolean repetido;
+    }
+}
@@ -0,0 +1,379 @@
+package com.taxsiito.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taxsiito.backend.dto.ImportacionProductosDTO;
+import com.taxsiito.backend.dto.ImportacionProductosDTO.ErrorFila;
+import com.taxsiito.backend.model.Categoria;
+import com.taxsiito.backend.model.Producto;
+import com.taxsiito.backend.repository.CategoriaRepository;
+import com.taxsiito.backend.repository.ProductoRepository;
+import com.taxsiito.backend.util.EscritorFilas.Formato;
+import com.taxsiito.backend.util.LectorCsv;
+import com.taxsiito.backend.util.Textos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importación masiva de productos desde CSV o NDJSON.
+ *
+ * El archivo se lee fila por fila. Los códigos existentes y las categorías se cargan una vez
+ * al inicio, así que validar una fila no consulta la base de datos. Las filas válidas se
+ * escriben por lotes JDBC (INSERT para códigos nuevos, UPDATE por código para los existentes),
+ * cada lote en su propia transacción. Si un lote falla se reintenta fila por fila para
+ * rechazar solo las filas con problemas.
+ *
+ * Columnas: codigo, nombre, precio (requeridos), descripcion, stock, stockCritico, imagen,
+ * categoriaId o categoria (nombre) y activo. En un producto existente, los campos opcionales
+ * vacíos conservan su valor actual.
+ */
+@Service
+@Slf4j
+public class ImportacionProductosService {
+
+    private static final int ERRORES_MAX = 1000;
+
+    private final ProductoRepository productoRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+
+    public ImportacionProductosService(ProductoRepository productoRepository,
+                                       CategoriaRepository categoriaRepository,
+                                       ApplicationEventPublisher eventPublisher,
+                                       ObjectMapper objectMapper,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${taxsiito.productos.importacion.tamanio-lote:500}") int tamanioLote) {
+        this.productoRepository = productoRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Importa los productos del archivo y retorna el resumen con los errores por fila.
+     * Si la lectura se interrumpe, se guardan las filas válidas leídas hasta ese punto y el
+     * resumen lo informa como un error sin número de fila.
+     */
+    public ImportacionProductosDTO importar(InputStream entrada, Formato formato) {
+        Importacion importacion = new Importacion();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        try {
+            if (formato == Formato.CSV) {
+                leerCsv(reader, importacion);
+            } else {
+                leerNdjson(reader, importacion);
+            }
+        } catch (IOException e) {
+            log.warn("Importación de productos interrumpida: {}", e.getMessage());
+            importacion.rechazar(null, null, "No se pudo leer el resto del archivo: " + e.getMessage());
+        } finally {
+            try {
+                importacion.escribirLote();
+            } finally {
+                // Los lotes ya confirmados deben llegar al catálogo aunque algo falle después
+                if (importacion.creadas + importacion.actualizadas > 0) {
+                    eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
+                }
+            }
+        }
+        log.info("Importación de productos: {} filas, {} creadas, {} actualizadas, {} rechazadas",
+                importacion.procesadas, importacion.creadas, importacion.actualizadas, importacion.rechazadas);
+
+        return ImportacionProductosDTO.builder()
+                .procesadas(importacion.procesadas)
+                .creadas(importacion.creadas)
+                .actualizadas(importacion.actualizadas)
+                .rechazadas(importacion.rechazadas)
+                .errores(importacion.errores)
+                .build();
+    }
+
+    private void leerCsv(BufferedReader reader, Importacion importacion) throws IOException {
+        LectorCsv lector = new LectorCsv(reader);
+        List<String> cabecera = lector.leerRegistro();
+        if (cabecera == null) return;
+        cabecera.replaceAll(String::trim);
+
+        int fila = 0;
+        while (true) {
+            List<String> registro;
+            try {
+                registro = lector.leerRegistro();
+            } catch (LectorCsv.RegistroInvalidoException e) {
+                importacion.rechazarIlegible(++fila, e.getMessage());
+                continue;
+            }
+            if (registro == null) break;
+            fila++;
+            if (registro.size() == 1 && registro.get(0).isBlank()) continue;
+            Map<String, String> valores = new HashMap<>();
+            for (int i = 0; i < cabecera.size() && i < registro.size(); i++) {
+                valores.put(cabecera.get(i), registro.get(i));
+            }
+            importacion.procesar(fila, valores);
+        }
+    }
+
+    private void leerNdjson(BufferedReader reader, Importacion importacion) throws IOException {
+        int fila = 0;
+        String linea;
+        while ((linea = reader.readLine()) != null) {
+            fila++;
+            if (fila == 1 && linea.startsWith("\uFEFF")) {
+                linea = linea.substring(1);
+            }
+            if (linea.isBlank()) continue;
+            Map<String, String> valores = new HashMap<>();
+            try {
+                JsonNode nodo = objectMapper.readTree(linea);
+                if (!nodo.isObject()) throw new IOException();
+                Iterator<Map.Entry<String, JsonNode>> campos = nodo.fields();
+                while (campos.hasNext()) {
+                    Map.Entry<String, JsonNode> campo = campos.next();
+                    valores.put(campo.getKey(), campo.getValue().isNull() ? null : campo.getValue().asText());
+                }
+            } catch (IOException e) {
+                importacion.rechazarIlegible(fila, "JSON inválido");
+                continue;
+            }
+            importacion.procesar(fila, valores);
+        }
+    }
+
+    /**
+     * Estado de una importación en curso.
+     */
+    private class Importacion {
+
+        private final Set<String> existentes = productoRepository.obtenerCodigos();
+        private final Set<String> vistos = new HashSet<>();
+        private final Map<Long, Categoria> categoriasPorId = new HashMap<>();
+        private final Map<String, Categoria> categoriasPorNombre = new HashMap<>();
+        private final List<FilaValida> lote = new ArrayList<>();
+        private final List<ErrorFila> errores = new ArrayList<>();
+        private int procesadas;
+        private int creadas;
+        private int actualizadas;
+        private int rechazadas;
+
+        Importacion() {
+            for (Categoria categoria : categoriaRepository.findAll()) {
+                categoriasPorId.put(categoria.getId(), categoria);
+                categoriasPorNombre.put(Textos.normalizar(categoria.getNombre()).trim(), categoria);
+            }
+        }
+
+        /**
+         * Valida una fila y la agrega al lote.
+         */
+        void procesar(int fila, Map<String, String> valores) {
+            procesadas++;
+            String codigo = texto(valores, "codigo");
+            try {
+                Producto producto = convertir(codigo, valores);
+                if (!vistos.add(codigo)) {
+                    throw new RuntimeException("Código repetido en el archivo");
+                }
+                lote.add(new FilaValida(fila, producto, existentes.contains(codigo)));
+            } catch (RuntimeException e) {
+                rechazar(fila, codigo, e.getMessage());
+            }
+            if (lote.size() >= tamanioLote) {
+                escribirLote();
+            }
+        }
+
+        /**
+         * Cuenta una fila que no se pudo interpretar (registro CSV mal formado o JSON inválido).
+         */
+        void rechazarIlegible(int fila, String error) {
+            procesadas++;
+            rechazar(fila, null, error);
+        }
+
+        void rechazar(Integer fila, String codigo, String error) {
+            rechazadas++;
+            if (errores.size() < ERRORES_MAX) {
+                errores.add(ErrorFila.builder().fila(fila).codigo(codigo).error(error).build());
+            }
+        }
+
+        void escribirLote() {
+            if (lote.isEmpty()) return;
+            List<FilaValida> filas = new ArrayList<>(lote);
+            lote.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> escribir(filas));
+                filas.forEach(this::contar);
+            } catch (DataAccessException e) {
+                log.debug("Lote de importación rechazado, se reintenta fila por fila: {}", e.getMessage());
+                for (FilaValida fila : filas) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> escribir(List.of(fila)));
+                        contar(fila);
+                    } catch (DuplicateKeyException ex) {
+                        rechazar(fila.fila, fila.producto.getCodigo(), "Ya existe un producto con ese código");
+                    } catch (DataAccessException ex) {
+                        rechazar(fila.fila, fila.producto.getCodigo(), "No se pudo guardar: "
+                                + ex.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+        }
+
+        private void escribir(List<FilaValida> filas) {
+            List<Producto> nuevos = new ArrayList<>();
+            List<Producto> existentesLote = new ArrayList<>();
+            for (FilaValida fila : filas) {
+                (fila.existente ? existentesLote : nuevos).add(fila.producto);
+            }
+            productoRepository.insertarEnLote(nuevos);
+            productoRepository.actualizarPorCodigoEnLote(existentesLote);
+        }
+
+        private void contar(FilaValida fila) {
+            if (fila.existente) {
+                actualizadas++;
+            } else {
+                creadas++;
+                existentes.add(fila.producto.getCodigo());
+            }
+        }
+
+        /**
+         * Valida una fila con las mismas reglas que la entidad Producto.
+         */
+        private Producto convertir(String codigo, Map<String, String> valores) {
+            if (codigo == null) throw new RuntimeException("El código es requerido");
+            if (codigo.length() > 20) throw new RuntimeException("El código no puede superar 20 caracteres");
+
+            String nombre = texto(valores, "nombre");
+            if (nombre == null) throw new RuntimeException("El nombre es requerido");
+            if (nombre.length() > 100) throw new RuntimeException("El nombre no puede superar 100 caracteres");
+
+            String descripcion = texto(valores, "descripcion");
+            if (descripcion != null && descripcion.length() > 500) {
+                throw new RuntimeException("La descripción no puede superar 500 caracteres");
+            }
+            String imagen = texto(valores, "imagen");
+            if (imagen != null && imagen.length() > 255) {
+                throw new RuntimeException("La URL de imagen no puede superar 255 caracteres");
+            }
+
+            BigDecimal precio;
+            try {
+                precio = texto(valores, "precio") != null ? new BigDecimal(texto(valores, "precio")) : null;
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Precio inválido");
+            }
+            if (precio == null) throw new RuntimeException("El precio es requerido");
+            if (precio.signum() <= 0) throw new RuntimeException("El precio debe ser mayor a 0");
+
+            Integer stock = entero(valores, "stock", "Stock inválido");
+            if (stock != null && stock < 0) throw new RuntimeException("El stock no puede ser negativo");
+            Integer stockCritico = entero(valores, "stockCritico", "Stock crítico inválido");
+            if (stockCritico != null && stockCritico < 0) {
+                throw new RuntimeException("El stock crítico no puede ser negativo");
+            }
+
+            String activoTexto = texto(valores, "activo");
+            Boolean activo = null;
+            if (activoTexto != null) {
+                if (!activoTexto.equalsIgnoreCase("true") && !activoTexto.equalsIgnoreCase("false")) {
+                    throw new RuntimeException("Activo inválido (true o false)");
+                }
+                activo = Boolean.valueOf(activoTexto);
+            }
+
+            Producto producto = Producto.builder()
+                    .codigo(codigo)
+                    .nombre(nombre)
+                    .descripcion(descripcion)
+                    .precio(precio)
+                    .imagen(imagen)
+                    .categoria(categoria(valores))
+                    .build();
+            // Un producto nuevo toma los valores por defecto; uno existente conserva los actuales
+            boolean existente = existentes.contains(codigo);
+            producto.setStock(stock != null || existente ? stock : Integer.valueOf(0));
+            producto.setStockCritico(stockCritico != null || existente ? stockCritico : Integer.valueOf(5));
+            producto.setActivo(activo != null || existente ? activo : Boolean.TRUE);
+            return producto;
+        }
+
+        private Categoria categoria(Map<String, String> valores) {
+            String categoriaId = texto(valores, "categoriaId");
+            if (categoriaId != null) {
+                Categoria categoria;
+                try {
+                    categoria = categoriasPorId.get(Long.valueOf(categoriaId));
+                } catch (NumberFormatException e) {
+                    throw new RuntimeException("Categoría inválida");
+                }
+                if (categoria == null) throw new RuntimeException("Categoría no encontrada");
+                return categoria;
+            }
+            String nombre = texto(valores, "categoria");
+            if (nombre == null) return null;
+            Categoria categoria = categoriasPorNombre.get(Textos.normalizar(nombre));
+            if (categoria == null) throw new RuntimeException("Categoría no encontrada: " + nombre);
+            return categoria;
+        }
+    }
+
+    /**
+     * Fila validada a la espera de escribirse en el lote.
+     */
+    private static class FilaValida {
+        private final int fila;
+        private final Producto producto;
+        private final boolean existente;
+
+        FilaValida(int fila, Producto producto, boolean existente) {
+            this.fila = fila;
+            this.producto = producto;
+            this.existente = existente;
+        }
+    }
+
+    private static String texto(Map<String, String> valores, String columna) {
+        String valor = valores.get(columna);
+        if (valor == null) return null;
+        valor = valor.trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static Integer entero(Map<String, String> valores, String columna, String error) {
+        String valor = texto(valores, columna);
+        if (valor == null) return null;
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(error);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.PaginaDTO;
+import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.util.Cursores;
+import com.taxsiito.backend.util.Textos;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido en memoria sobre el código, nombre y descripción de los productos activos.
+ *
+ * Cada palabra (sin tildes y en minúsculas) apunta a los productos que la contienen, con una
+ * frecuencia ponderada por campo: una coincidencia en el código pesa más que en el nombre, y
+ * esta más que en la descripción. Una búsqueda exige todas las palabras y recorre solo la lista
+ * más corta, así que su costo depende de los productos que coinciden y no del tamaño del catálogo.
+ * El índice se mantiene a partir de los snapshots de CatalogoService.
+ */
+@Component
+@Slf4j
+public class IndiceBusquedaProductos implements OyenteCatalogo {
+
+    private static final int PESO_CODIGO = 5;
+    private static final int PESO_NOMBRE = 3;
+    private static final int PESO_DESCRIPCION = 1;
+
+    private static final Comparator<Resultado> POR_RELEVANCIA = Comparator
+            .comparingDouble(Resultado::getPuntaje).reversed()
+            .thenComparing(r -> r.getProducto().getId());
+
+    private volatile Indice indice = new Indice();
+
+    @Override
+    public void alRecargar(Collection<ProductoDTO> activos) {
+        Indice nuevo = new Indice();
+        activos.forEach(nuevo::agregar);
+        indice = nuevo;
+        log.debug("Índice de búsqueda reconstruido: {} productos, {} términos",
+                nuevo.documentos.size(), nuevo.postings.size());
+    }
+
+    @Override
+    public void alActualizar(Set<Long> productoIds, Collection<ProductoDTO> actualizados) {
+        Indice actual = indice;
+        Set<Long> vigentes = new LinkedHashSet<>();
+        for (ProductoDTO producto : actualizados) {
+            actual.agregar(producto);
+            vigentes.add(producto.getId());
+        }
+        for (Long id : productoIds) {
+            if (!vigentes.contains(id)) {
+                actual.eliminar(id);
+            }
+        }
+    }
+
+    /**
+     * Busca productos que contengan todas las palabras del texto, ordenados por relevancia
+     * y luego por ID. El cursor guarda el puntaje y el ID del último resultado entregado.
+     */
+    public PaginaDTO<ProductoDTO> buscar(String texto, String cursor, int limite) {
+        Set<String> terminos = new LinkedHashSet<>(Textos.tokenizar(texto));
+        if (terminos.isEmpty()) {
+            return pagina(Collections.emptyList(), false, null);
+        }
+
+        double puntajeCursor = Double.POSITIVE_INFINITY;
+        long idCursor = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = Cursores.decodificar(cursor, 2);
+            try {
+                puntajeCursor = Double.parseDouble(partes[0]);
+                idCursor = Long.parseLong(partes[1]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
+
+        Indice actual = indice;
+        List<Map<Long, Integer>> listas = new ArrayList<>();
+        for (String termino : terminos) {
+            Map<Long, Integer> lista = actual.postings.get(termino);
+            if (lista == null || lista.isEmpty()) {
+                return pagina(Collections.emptyList(), false, null);
+            }
+            listas.add(lista);
+        }
+        listas.sort(Comparator.comparingInt(Map::size));
+
+        int total = Math.max(1, actual.documentos.size());
+        double[] idf = new double[listas.size()];
+        for (int i = 0; i < listas.size(); i++) {
+            idf[i] = Math.log(1.0 + (double) total / listas.get(i).size());
+        }
+
+        // Se conservan solo los limite + 1 mejores después del cursor (el peor queda en la cabeza)
+        PriorityQueue<Resultado> mejores = new PriorityQueue<>(limite + 1, POR_RELEVANCIA.reversed());
+        candidatos:
+        for (Map.Entry<Long, Integer> entrada : listas.get(0).entrySet()) {
+            Long id = entrada.getKey();
+            double puntaje = idf[0] * entrada.getValue();
+            for (int i = 1; i < listas.size(); i++) {
+                Integer frecuencia = listas.get(i).get(id);
+                if (frecuencia == null) continue candidatos;
+                puntaje += idf[i] * frecuencia;
+            }
+            if (puntaje > puntajeCursor || (puntaje == puntajeCursor && id <= idCursor)) continue;
+
+            Documento documento = actual.documentos.get(id);
+            if (documento == null) continue;
+            mejores.add(new Resultado(documento.getProducto(), puntaje));
+            if (mejores.size() > limite + 1) {
+                mejores.poll();
+            }
+        }
+
+        List<Resultado> ordenados = new ArrayList<>(mejores);
+        ordenados.sort(POR_RELEVANCIA);
+        boolean hayMas = ordenados.size() > limite;
+        if (hayMas) {
+            ordenados = ordenados.subList(0, limite);
+        }
+        String siguiente = null;
+        if (hayMas) {
+            Resultado ultimo = ordenados.get(ordenados.size() - 1);
+            siguiente = Cursores.codificar(ultimo.getPuntaje(), ultimo.getProducto().getId());
+        }
+        List<ProductoDTO> productos = new ArrayList<>(ordenados.size());
+        ordenados.forEach(r -> productos.add(r.getProducto()));
+        return pagina(productos, hayMas, siguiente);
+    }
+
+    private static PaginaDTO<ProductoDTO> pagina(List<ProductoDTO> productos, boolean hayMas, String cursor) {
+        return PaginaDTO.<ProductoDTO>builder()
+                .items(productos)
+                .tamanio(productos.size())
+                .hayMas(hayMas)
+                .siguienteCursor(cursor)
+                .build();
+    }
+
+    /**
+     * Frecuencias ponderadas de cada término de un producto.
+     */
+    private static Map<String, Integer> terminos(ProductoDTO producto) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        Textos.tokenizar(producto.getCodigo()).forEach(t -> frecuencias.merge(t, PESO_CODIGO, Integer::sum));
+        Textos.tokenizar(producto.getNombre()).forEach(t -> frecuencias.merge(t, PESO_NOMBRE, Integer::sum));
+        Textos.tokenizar(producto.getDescripcion()).forEach(t -> frecuencias.merge(t, PESO_DESCRIPCION, Integer::sum));
+        return frecuencias;
+    }
+
+    /**
+     * Producto indexado con sus términos, para poder quitarlos al actualizarlo.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Documento {
+        private final ProductoDTO producto;
+        private final Map<String, Integer> terminos;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Resultado {
+        private final ProductoDTO producto;
+        private final double puntaje;
+    }
+
+    /**
+     * Postings y documentos indexados. Lo modifica un solo escritor a la vez (CatalogoService
+     * serializa las notificaciones); las búsquedas leen en paralelo sin bloquear.
+     */
+    private static final class Indice {
+
+        private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+        private final Map<Long, Documento> documentos = new ConcurrentHashMap<>();
+
+        /**
+         * Agrega o reemplaza un producto. Primero se publican los términos nuevos y después
+         * se quitan los que ya no aplican, para que una búsqueda concurrente no lo pierda.
+         */
+        void agregar(ProductoDTO producto) {
+            Long id = producto.getId();
+            Map<String, Integer> nuevos = terminos(producto);
+            Documento anterior = documentos.put(id, new Documento(producto, nuevos));
+            nuevos.forEach((termino, frecuencia) ->
+                    postings.computeIfAbsent(termino, k -> new ConcurrentHashMap<>()).put(id, frecuencia));
+            if (anterior != null) {
+                anterior.getTerminos().keySet().stream()
+                        .filter(termino -> !nuevos.containsKey(termino))
+                        .forEach(termino -> quitarPosting(termino, id));
+            }
+        }
+
+        void eliminar(Long id) {
+            Documento anterior = documentos.remove(id);
+            if (anterior != null) {
+                anterior.getTerminos().keySet().forEach(termino -> quitarPosting(termino, id));
+            }
+        }
+
+        private void quitarPosting(String termino, Long id) {
+            postings.computeIfPresent(termino, (k, lista) -> {
+                lista.remove(id);
+                return lista.isEmpty() ? null : lista;
+            });
+        }
+    }
+}
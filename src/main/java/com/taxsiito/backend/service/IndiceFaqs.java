@@ -0,0 +1,307 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.BusquedaFaqDTO;
+import com.taxsiito.backend.dto.PreguntaFrecuenteDTO;
+import com.taxsiito.backend.repository.PreguntaFrecuenteRepository;
+import com.taxsiito.backend.util.AnalizadorEspanol;
+import com.taxsiito.backend.util.Textos;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de las preguntas frecuentes activas, ordenado por relevancia con BM25.
+ *
+ * Indexa la pregunta, la respuesta y la categoría con el análisis de {@link AnalizadorEspanol};
+ * las palabras de la pregunta y la categoría pesan el doble que las de la respuesta. A diferencia
+ * del índice de productos, basta con que coincida una palabra de la consulta: los usuarios del
+ * chat escriben oraciones completas y BM25 premia a las preguntas que cubren más términos.
+ * Las palabras de la consulta que no aparecen en ninguna pregunta se corrigen con
+ * {@link VocabularioFaqs}: la búsqueda usa también las correcciones y la respuesta las sugiere.
+ * Se carga al iniciar y se mantiene con los cambios confirmados en PreguntaFrecuenteService;
+ * una recarga periódica recoge los cambios hechos por otras instancias o fuera de los servicios.
+ */
+@Component
+@Slf4j
+public class IndiceFaqs {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int PESO_PREGUNTA = 2;
+    private static final int PESO_CATEGORIA = 2;
+    private static final int PESO_RESPUESTA = 1;
+
+    private static final int CORRECCIONES_POR_PALABRA = 3;
+    private static final int SUGERENCIAS_MAX = 3;
+
+    private static final Comparator<Resultado> POR_RELEVANCIA = Comparator
+            .comparingDouble(Resultado::getPuntaje).reversed()
+            .thenComparing(r -> r.getPregunta().getId());
+
+    private final PreguntaFrecuenteRepository preguntaRepository;
+
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Documento> documentos = new ConcurrentHashMap<>();
+    private final VocabularioFaqs vocabulario = new VocabularioFaqs();
+    private volatile long longitudTotal;
+    private volatile boolean cargado;
+
+    public IndiceFaqs(PreguntaFrecuenteRepository preguntaRepository) {
+        this.preguntaRepository = preguntaRepository;
+    }
+
+    /**
+     * Carga el índice al iniciar la aplicación (después de los datos iniciales).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        asegurarCargado();
+    }
+
+    /**
+     * Carga las preguntas activas si el índice aún no se construyó.
+     */
+    public void asegurarCargado() {
+        if (cargado) return;
+        synchronized (this) {
+            if (cargado) return;
+            preguntaRepository.findByActivaTrueOrderByOrdenVisualizacionAsc()
+                    .forEach(faq -> agregar(PreguntaFrecuenteDTO.fromEntity(faq)));
+            cargado = true;
+            log.debug("Índice de FAQs cargado: {} preguntas, {} términos, {} palabras",
+                    documentos.size(), postings.size(), vocabulario.tamanio());
+        }
+    }
+
+    /**
+     * Recarga periódica: reemplaza las preguntas que cambiaron y quita las que ya no están activas.
+     * La lectura se hace con el lock tomado, así que un cambio confirmado después se aplica encima.
+     */
+    @Scheduled(fixedDelayString = "${taxsiito.faqs.recarga-ms:600000}",
+               initialDelayString = "${taxsiito.faqs.recarga-ms:600000}")
+    public synchronized void recargar() {
+        if (!cargado) {
+            asegurarCargado();
+            return;
+        }
+        Set<Long> vigentes = new HashSet<>();
+        preguntaRepository.findByActivaTrueOrderByOrdenVisualizacionAsc().forEach(faq -> {
+            PreguntaFrecuenteDTO pregunta = PreguntaFrecuenteDTO.fromEntity(faq);
+            Documento actual = documentos.get(pregunta.getId());
+            if (actual == null || !actual.getPregunta().equals(pregunta)) {
+                agregar(pregunta);
+            }
+            vigentes.add(pregunta.getId());
+        });
+        new ArrayList<>(documentos.keySet()).stream()
+                .filter(id -> !vigentes.contains(id))
+                .forEach(this::quitar);
+        log.debug("Índice de FAQs recargado: {} preguntas", documentos.size());
+    }
+
+    /**
+     * Agrega o reemplaza una pregunta; si quedó inactiva, la quita del índice.
+     */
+    public synchronized void indexar(PreguntaFrecuenteDTO pregunta) {
+        if (!cargado) return;
+        if (Boolean.FALSE.equals(pregunta.getActiva())) {
+            quitar(pregunta.getId());
+        } else {
+            agregar(pregunta);
+        }
+    }
+
+    /**
+     * Quita una pregunta del índice.
+     */
+    public synchronized void quitar(Long id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior != null) {
+            longitudTotal -= anterior.getLongitud();
+            anterior.getTerminos().keySet().forEach(termino -> quitarPosting(termino, id));
+            vocabulario.quitar(anterior.getPalabras());
+        }
+    }
+
+    /**
+     * Las preguntas más relevantes para el texto, de mayor a menor puntaje BM25, junto con
+     * la consulta corregida si alguna palabra no aparece en el vocabulario.
+     */
+    public BusquedaFaqDTO buscar(String texto, int limite) {
+        asegurarCargado();
+        Set<String> terminos = new LinkedHashSet<>();
+        Map<String, List<String>> correcciones = new HashMap<>();
+        for (String palabra : AnalizadorEspanol.palabras(texto)) {
+            String termino = AnalizadorEspanol.raiz(palabra);
+            terminos.add(termino);
+            if (postings.containsKey(termino) || vocabulario.contiene(palabra) || correcciones.containsKey(palabra)) {
+                continue;
+            }
+            List<String> cercanas = vocabulario.corregir(palabra, CORRECCIONES_POR_PALABRA);
+            if (!cercanas.isEmpty()) {
+                correcciones.put(palabra, cercanas);
+                terminos.add(AnalizadorEspanol.raiz(cercanas.get(0)));
+            }
+        }
+        return BusquedaFaqDTO.builder()
+                .resultados(rankear(terminos, limite))
+                .quisoDecir(sugerencias(texto, correcciones))
+                .build();
+    }
+
+    private List<PreguntaFrecuenteDTO> rankear(Set<String> terminos, int limite) {
+        int total = documentos.size();
+        if (terminos.isEmpty() || total == 0) {
+            return new ArrayList<>();
+        }
+        double longitudPromedio = Math.max(1.0, (double) longitudTotal / total);
+
+        Map<Long, Double> puntajes = new HashMap<>();
+        for (String termino : terminos) {
+            Map<Long, Integer> lista = postings.get(termino);
+            if (lista == null || lista.isEmpty()) continue;
+            double idf = Math.log(1.0 + (total - lista.size() + 0.5) / (lista.size() + 0.5));
+            for (Map.Entry<Long, Integer> entrada : lista.entrySet()) {
+                Documento documento = documentos.get(entrada.getKey());
+                if (documento == null) continue;
+                double tf = entrada.getValue();
+                double norma = K1 * (1 - B + B * documento.getLongitud() / longitudPromedio);
+                puntajes.merge(entrada.getKey(), idf * tf * (K1 + 1) / (tf + norma), Double::sum);
+            }
+        }
+
+        // Se conservan solo los limite mejores (el peor queda en la cabeza)
+        PriorityQueue<Resultado> mejores = new PriorityQueue<>(limite + 1, POR_RELEVANCIA.reversed());
+        puntajes.forEach((id, puntaje) -> {
+            Documento documento = documentos.get(id);
+            if (documento == null) return;
+            mejores.add(new Resultado(documento.getPregunta(), puntaje));
+            if (mejores.size() > limite) {
+                mejores.poll();
+            }
+        });
+
+        List<Resultado> ordenados = new ArrayList<>(mejores);
+        ordenados.sort(POR_RELEVANCIA);
+        List<PreguntaFrecuenteDTO> resultado = new ArrayList<>(ordenados.size());
+        ordenados.forEach(r -> resultado.add(r.getPregunta()));
+        return resultado;
+    }
+
+    /**
+     * Consultas corregidas: primero con la mejor corrección de cada palabra y después
+     * cambiando una palabra por su siguiente alternativa. Las palabras sin corrección se
+     * conservan como se escribieron (normalizadas).
+     */
+    private static List<String> sugerencias(String texto, Map<String, List<String>> correcciones) {
+        List<String> sugerencias = new ArrayList<>();
+        if (correcciones.isEmpty()) {
+            return sugerencias;
+        }
+        List<String> palabras = Textos.tokenizar(texto);
+        List<String> mejor = new ArrayList<>(palabras.size());
+        for (String palabra : palabras) {
+            List<String> cercanas = correcciones.get(palabra);
+            mejor.add(cercanas != null ? cercanas.get(0) : palabra);
+        }
+        sugerencias.add(String.join(" ", mejor));
+
+        for (int alternativa = 1; alternativa < CORRECCIONES_POR_PALABRA; alternativa++) {
+            for (int i = 0; i < palabras.size() && sugerencias.size() < SUGERENCIAS_MAX; i++) {
+                List<String> cercanas = correcciones.get(palabras.get(i));
+                if (cercanas == null || cercanas.size() <= alternativa) continue;
+                List<String> variante = new ArrayList<>(mejor);
+                variante.set(i, cercanas.get(alternativa));
+                String consulta = String.join(" ", variante);
+                if (!sugerencias.contains(consulta)) {
+                    sugerencias.add(consulta);
+                }
+            }
+        }
+        return sugerencias;
+    }
+
+    /**
+     * Publica primero los términos nuevos y después quita los que ya no aplican, para que una
+     * búsqueda concurrente no pierda la pregunta.
+     */
+    private void agregar(PreguntaFrecuenteDTO pregunta) {
+        Long id = pregunta.getId();
+        Map<String, Integer> nuevos = terminos(pregunta);
+        Set<String> palabras = palabras(pregunta);
+        int longitud = nuevos.values().stream().mapToInt(Integer::intValue).sum();
+        Documento anterior = documentos.put(id, new Documento(pregunta, nuevos, palabras, longitud));
+        nuevos.forEach((termino, frecuencia) ->
+                postings.computeIfAbsent(termino, k -> new ConcurrentHashMap<>()).put(id, frecuencia));
+        vocabulario.agregar(palabras);
+        longitudTotal += longitud - (anterior != null ? anterior.getLongitud() : 0);
+        if (anterior != null) {
+            anterior.getTerminos().keySet().stream()
+                    .filter(termino -> !nuevos.containsKey(termino))
+                    .forEach(termino -> quitarPosting(termino, id));
+            vocabulario.quitar(anterior.getPalabras());
+        }
+    }
+
+    private void quitarPosting(String termino, Long id) {
+        postings.computeIfPresent(termino, (k, lista) -> {
+            lista.remove(id);
+            return lista.isEmpty() ? null : lista;
+        });
+    }
+
+    /**
+     * Frecuencias ponderadas de cada término de una pregunta.
+     */
+    private static Map<String, Integer> terminos(PreguntaFrecuenteDTO pregunta) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        AnalizadorEspanol.terminos(pregunta.getPregunta()).forEach(t -> frecuencias.merge(t, PESO_PREGUNTA, Integer::sum));
+        AnalizadorEspanol.terminos(pregunta.getCategoriaPregunta()).forEach(t -> frecuencias.merge(t, PESO_CATEGORIA, Integer::sum));
+        AnalizadorEspanol.terminos(pregunta.getRespuesta()).forEach(t -> frecuencias.merge(t, PESO_RESPUESTA, Integer::sum));
+        return frecuencias;
+    }
+
+    /**
+     * Palabras distintas de una pregunta (sin reducir), para el vocabulario de correcciones.
+     */
+    private static Set<String> palabras(PreguntaFrecuenteDTO pregunta) {
+        Set<String> palabras = new LinkedHashSet<>(AnalizadorEspanol.palabras(pregunta.getPregunta()));
+        palabras.addAll(AnalizadorEspanol.palabras(pregunta.getCategoriaPregunta()));
+        palabras.addAll(AnalizadorEspanol.palabras(pregunta.getRespuesta()));
+        return palabras;
+    }
+
+    /**
+     * Pregunta indexada con sus términos, sus palabras y su longitud ponderada.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Documento {
+        private final PreguntaFrecuenteDTO pregunta;
+        private final Map<String, Integer> terminos;
+        private final Set<String> palabras;
+        private final int longitud;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Resultado {
+        private final PreguntaFrecuenteDTO pregunta;
+        private final double puntaje;
+    }
+}
@@ -0,0 +1,165 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.CambioStockBajoDTO;
+import com.taxsiito.backend.dto.ProductoDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Conjunto en memoria de los productos activos con stock bajo (stock <= stockCritico).
+ *
+ * Se mantiene con las notificaciones de CatalogoService. Las órdenes y los ajustes de stock
+ * publican un cambio solo de stock, y el catálogo relee de la base de datos únicamente la columna
+ * stock de esos productos. La creación y la edición de productos hacen que el catálogo relea
+ * esos productos enteros, y la importación, el catálogo completo. La lectura ocurre después del commit,
+ * en el hilo del catálogo, así que el conjunto queda unos instantes detrás de la base de datos.
+ * Los cambios hechos fuera de los servicios (por ejemplo, SQL directo) no publican nada: los
+ * corrige la recarga completa del catálogo, cada taxsiito.catalogo.recarga-ms (10 minutos por
+ * defecto). Cuando un producto cruza el umbral en cualquier sentido se avisa a los suscriptores
+ * SSE desde un hilo propio, para no frenar las actualizaciones.
+ */
+@Component
+@Slf4j
+public class MonitorStockBajo implements OyenteCatalogo {
+
+    static final String EVENTO_INICIAL = "stock-bajo";
+    static final String EVENTO_CAMBIO = "cambio";
+
+    private final Map<Long, ProductoDTO> bajos = new ConcurrentHashMap<>();
+    private final List<SseEmitter> suscriptores = new CopyOnWriteArrayList<>();
+    private final ExecutorService envios = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "stock-bajo-sse");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final long timeoutMs;
+
+    public MonitorStockBajo(@Value("${taxsiito.productos.stock-bajo.sse-timeout-ms:1800000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void alRecargar(Collection<ProductoDTO> activos) {
+        Map<Long, ProductoDTO> actuales = new HashMap<>();
+        for (ProductoDTO producto : activos) {
+            if (Boolean.TRUE.equals(producto.getStockBajo())) {
+                actuales.put(producto.getId(), producto);
+            }
+        }
+
+        List<CambioStockBajoDTO> cambios = new ArrayList<>();
+        for (ProductoDTO anterior : bajos.values()) {
+            if (!actuales.containsKey(anterior.getId())) {
+                cambios.add(cambio(anterior, false));
+            }
+        }
+        for (ProductoDTO producto : actuales.values()) {
+            if (!bajos.containsKey(producto.getId())) {
+                cambios.add(cambio(producto, true));
+            }
+        }
+        bajos.putAll(actuales);
+        bajos.keySet().retainAll(actuales.keySet());
+        if (!cambios.isEmpty()) {
+            log.debug("Stock bajo reconciliado: {} cambios", cambios.size());
+        }
+        notificar(cambios);
+    }
+
+    @Override
+    public void alActualizar(Set<Long> productoIds, Collection<ProductoDTO> actualizados) {
+        Map<Long, ProductoDTO> porId = new HashMap<>();
+        actualizados.forEach(producto -> porId.put(producto.getId(), producto));
+
+        List<CambioStockBajoDTO> cambios = new ArrayList<>();
+        for (Long id : productoIds) {
+            ProductoDTO producto = porId.get(id);
+            boolean bajo = producto != null && Boolean.TRUE.equals(producto.getStockBajo());
+            ProductoDTO anterior = bajo ? bajos.put(id, producto) : bajos.remove(id);
+            if (bajo && anterior == null) {
+                cambios.add(cambio(producto, true));
+            } else if (!bajo && anterior != null) {
+                cambios.add(cambio(producto != null ? producto : anterior, false));
+            }
+        }
+        notificar(cambios);
+    }
+
+    /**
+     * Productos con stock bajo, del menor al mayor stock.
+     */
+    public List<ProductoDTO> obtener() {
+        List<ProductoDTO> productos = new ArrayList<>(bajos.values());
+        productos.sort(Comparator.comparing(ProductoDTO::getStock).thenComparing(ProductoDTO::getId));
+        return productos;
+    }
+
+    /**
+     * Registra un suscriptor SSE. Recibe primero el conjunto actual (evento stock-bajo)
+     * y luego un evento cambio por cada producto que cruza el umbral.
+     */
+    public SseEmitter suscribir() {
+        SseEmitter emisor = new SseEmitter(timeoutMs);
+        emisor.onCompletion(() -> suscriptores.remove(emisor));
+        emisor.onTimeout(() -> suscriptores.remove(emisor));
+        emisor.onError(e -> suscriptores.remove(emisor));
+        suscriptores.add(emisor);
+
+        List<ProductoDTO> actuales = obtener();
+        envios.execute(() -> enviar(emisor, EVENTO_INICIAL, actuales));
+        return emisor;
+    }
+
+    private void notificar(List<CambioStockBajoDTO> cambios) {
+        if (cambios.isEmpty() || suscriptores.isEmpty()) return;
+        envios.execute(() -> {
+            for (CambioStockBajoDTO cambio : cambios) {
+                suscriptores.forEach(emisor -> enviar(emisor, EVENTO_CAMBIO, cambio));
+            }
+        });
+    }
+
+    private void enviar(SseEmitter emisor, String nombre, Object datos) {
+        try {
+            emisor.send(SseEmitter.event().name(nombre).data(datos));
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado
+            suscriptores.remove(emisor);
+            emisor.completeWithError(e);
+        }
+    }
+
+    private static CambioStockBajoDTO cambio(ProductoDTO producto, boolean bajo) {
+        return CambioStockBajoDTO.builder()
+                .productoId(producto.getId())
+                .codigo(producto.getCodigo())
+                .nombre(producto.getNombre())
+                .stock(producto.getStock())
+                .stockCritico(producto.getStockCritico())
+                .stockBajo(bajo)
+                .fecha(LocalDateTime.now())
+                .build();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        envios.shutdownNow();
+        suscriptores.forEach(SseEmitter::complete);
+    }
+}
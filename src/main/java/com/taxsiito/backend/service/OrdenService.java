@@ -1,16 +1,29 @@
 package com.taxsiito.backend.service;
 
+import com.taxsiito.backend.dto.CambioEstadoMasivoDTO;
+import com.taxsiito.backend.dto.CambioEstadoMasivoDTO.ResultadoOrden;
+import com.taxsiito.backend.dto.FiltroOrdenes;
+import com.taxsiito.backend.dto.ItemOrdenDTO;
 import com.taxsiito.backend.dto.OrdenDTO;
+import com.taxsiito.backend.dto.PaginaDTO;
 import com.taxsiito.backend.model.*;
 import com.taxsiito.backend.model.enums.EstadoOrden;
 import com.taxsiito.backend.repository.*;
+import com.taxsiito.backend.util.Cursores;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -21,91 +34,190 @@ import java.util.stream.Collectors;
 @Transactional
 public class OrdenService {
 
+    private static final int TAMANIO_PAGINA = 20;
+    private static final int TAMANIO_PAGINA_MAX = 100;
+    private static final int CAMBIO_MASIVO_MAX = 1000;
+    private static final Sort ORDEN_LISTADO = Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id"));
+
     private final OrdenRepository ordenRepository;
     private final UsuarioRepository usuarioRepository;
     private final ProductoRepository productoRepository;
+    private final ItemOrdenRepository itemOrdenRepository;
+    private final StockService stockService;
+    private final GeneradorNumeroOrden generadorNumeroOrden;
+    private final EstadisticasOrdenesService estadisticasService;
+    private final VentasAgregadasService ventasService;
+    private final RankingVentasService rankingService;
+    private final EventosOrdenService eventosService;
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final HistorialOrdenesCache historialCache;
+    private final OrdenArchivoRepository ordenArchivoRepository;
 
     /**
-     * Obtiene todas las órdenes.
+     * Obtiene una página de órdenes que cumplen los filtros, de la más reciente a la más antigua.
      */
     @Transactional(readOnly = true)
-    public List<OrdenDTO> obtenerTodas() {
-        return ordenRepository.findAll().stream()
-                .map(OrdenDTO::fromEntity)
-                .collect(Collectors.toList());
+    public PaginaDTO<OrdenDTO> obtenerTodas(FiltroOrdenes filtro, String cursor, Integer tamanio) {
+        return paginar(filtro, cursor, tamanio);
     }
 
     /**
-     * Obtiene una orden por ID.
+     * Obtiene una orden por ID, buscando en el archivo si ya no está entre las activas.
      */
     @Transactional(readOnly = true)
     public Optional<OrdenDTO> obtenerPorId(Long id) {
-        return ordenRepository.findById(id)
-                .map(OrdenDTO::fromEntity);
+        return ordenRepository.findConUsuarioById(id)
+                .map(this::aDTO)
+                .or(() -> ordenArchivoRepository.buscarPorId(id));
     }
 
     /**
-     * Obtiene una orden por número de orden.
+     * Obtiene una orden por número de orden, buscando en el archivo si ya no está entre las activas.
      */
     @Transactional(readOnly = true)
     public Optional<OrdenDTO> obtenerPorNumero(String numeroOrden) {
         return ordenRepository.findByNumeroOrden(numeroOrden)
-                .map(OrdenDTO::fromEntity);
+                .map(this::aDTO)
+                .or(() -> ordenArchivoRepository.buscarPorNumero(numeroOrden));
     }
 
     /**
-     * Obtiene las órdenes de un usuario.
+     * Obtiene una página de las órdenes de un usuario.
      */
     @Transactional(readOnly = true)
-    public List<OrdenDTO> obtenerPorUsuario(Long usuarioId) {
-        return ordenRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuarioId).stream()
-                .map(OrdenDTO::fromEntity)
-                .collect(Collectors.toList());
+    public PaginaDTO<OrdenDTO> obtenerPorUsuario(Long usuarioId, FiltroOrdenes filtro, String cursor, Integer tamanio) {
+        filtro.setUsuarioId(usuarioId);
+        // La primera página sin filtros adicionales es la vista del historial y se sirve desde la cache
+        if (cursor == null && esHistorialSinFiltros(filtro) && (tamanio == null || tamanio == TAMANIO_PAGINA)) {
+            return historialCache.obtener(usuarioId, () -> paginar(filtro, null, TAMANIO_PAGINA));
+        }
+        return paginar(filtro, cursor, tamanio);
+    }
+
+    private static boolean esHistorialSinFiltros(FiltroOrdenes filtro) {
+        return filtro.getEstado() == null && filtro.getDesde() == null && filtro.getHasta() == null
+                && filtro.getRegionEnvio() == null && filtro.getTotalMin() == null && filtro.getTotalMax() == null;
     }
 
     /**
-     * Obtiene órdenes por estado.
+     * Obtiene una página de órdenes por estado.
      */
     @Transactional(readOnly = true)
-    public List<OrdenDTO> obtenerPorEstado(EstadoOrden estado) {
-        return ordenRepository.findByEstadoOrderByFechaCreacionDesc(estado).stream()
-                .map(OrdenDTO::fromEntity)
-                .collect(Collectors.toList());
+    public PaginaDTO<OrdenDTO> obtenerPorEstado(EstadoOrden estado, FiltroOrdenes filtro, String cursor, Integer tamanio) {
+        filtro.setEstado(estado);
+        return paginar(filtro, cursor, tamanio);
+    }
+
+    /**
+     * Paginación por clave sobre (fechaCreacion, id): cada página cuesta lo mismo
+     * sin importar cuán profunda sea, porque no usa OFFSET.
+     */
+    private PaginaDTO<OrdenDTO> paginar(FiltroOrdenes filtro, String cursor, Integer tamanio) {
+        int limite = tamanio == null ? TAMANIO_PAGINA : Math.max(1, Math.min(tamanio, TAMANIO_PAGINA_MAX));
+
+        Specification<Orden> spec = OrdenSpecifications.conFiltro(filtro);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = Cursores.decodificar(cursor, 2);
+            try {
+                spec = spec.and(OrdenSpecifications.despuesDe(LocalDateTime.parse(partes[0]), Long.valueOf(partes[1])));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
+
+        // Se pide un elemento extra para saber si hay página siguiente; el usuario viene en la misma consulta
+        List<Orden> ordenes = ordenRepository.findBy(spec, q -> q
+                .sortBy(ORDEN_LISTADO)
+                .project("usuario")
+                .limit(limite + 1)
+                .all());
+
+        boolean hayMas = ordenes.size() > limite;
+        if (hayMas) {
+            ordenes = ordenes.subList(0, limite);
+        }
+        Orden ultima = ordenes.isEmpty() ? null : ordenes.get(ordenes.size() - 1);
+
+        return PaginaDTO.<OrdenDTO>builder()
+                .items(aDTOs(ordenes))
+                .tamanio(ordenes.size())
+                .hayMas(hayMas)
+                .siguienteCursor(hayMas ? Cursores.codificar(ultima.getFechaCreacion(), ultima.getId()) : null)
+                .build();
     }
 
     /**
      * Crea una nueva orden.
+     * Carga todos los productos en una sola consulta, reserva el stock con UPDATE
+     * condicionales y escribe los items en un lote JDBC.
      */
     public OrdenDTO crear(Long usuarioId, List<ItemOrdenRequest> items, String direccionEnvio, 
                           String regionEnvio, String comunaEnvio, String notas) {
+        return crear(usuarioId, items, direccionEnvio, regionEnvio, comunaEnvio, notas, null, null);
+    }
+
+    /**
+     * Crea una nueva orden registrando su clave de idempotencia en la misma transacción.
+     * Una clave repetida viola el índice único y revierte el checkout completo.
+     */
+    public OrdenDTO crear(Long usuarioId, List<ItemOrdenRequest> items, String direccionEnvio,
+                          String regionEnvio, String comunaEnvio, String notas,
+                          String claveIdempotencia, String huella) {
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("La orden debe tener al menos un producto");
+        }
+
         // Obtener usuario
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        // Crear orden
-        Orden orden = Orden.builder()
-                .usuario(usuario)
-                .direccionEnvio(direccionEnvio)
-                .regionEnvio(regionEnvio)
-                .comunaEnvio(comunaEnvio)
-                .notas(notas)
-                .estado(EstadoOrden.PENDIENTE)
-                .subtotal(BigDecimal.ZERO)
-                .descuento(BigDecimal.ZERO)
-                .total(BigDecimal.ZERO)
-                .build();
+        // La clave se inserta antes de tocar el stock: un duplicado concurrente queda
+        // bloqueado en el índice único hasta que esta transacción termine
+        ClaveIdempotencia clave = null;
+        if (claveIdempotencia != null) {
+            clave = claveIdempotenciaRepository.save(ClaveIdempotencia.builder()
+                    .usuarioId(usuarioId)
+                    .clave(claveIdempotencia)
+                    .huella(huella)
+                    .build());
+        }
 
-        // Agregar items
+        // Cantidad total solicitada por producto (un carrito puede repetir productos)
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
         for (ItemOrdenRequest itemReq : items) {
-            Producto producto = productoRepository.findById(itemReq.getProductoId())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + itemReq.getProductoId()));
+            if (itemReq.getProductoId() == null) {
+                throw new RuntimeException("El producto es requerido");
+            }
+            if (itemReq.getCantidad() == null || itemReq.getCantidad() < 1) {
+                throw new RuntimeException("La cantidad mínima es 1");
+            }
+            cantidades.merge(itemReq.getProductoId(), itemReq.getCantidad(), Integer::sum);
+        }
 
-            // Verificar stock
-            if (producto.getStock() < itemReq.getCantidad()) {
-                throw new RuntimeException("Stock insuficiente para: " + producto.getNombre());
+        // Cargar todos los productos en una sola consulta
+        Map<Long, Producto> productos = productoRepository.findAllById(cantidades.keySet()).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        // Verificar existencia en memoria
+        for (Long productoId : cantidades.keySet()) {
+            if (!productos.containsKey(productoId)) {
+                throw new RuntimeException("Producto no encontrado: " + productoId);
             }
+        }
 
-            // Crear item
+        // Reservar stock con UPDATE condicionales; si falla alguno se revierte toda la transacción
+        StockService.ResultadoReserva reserva = stockService.reservar(cantidades);
+        if (!reserva.isCompleta()) {
+            String sinStock = reserva.getRechazados().stream()
+                    .map(productoId -> productos.get(productoId).getNombre())
+                    .collect(Collectors.joining(", "));
+            throw new RuntimeException("Stock insuficiente para: " + sinStock);
+        }
+
+        // Crear items
+        List<ItemOrden> itemsOrden = new ArrayList<>(items.size());
+        for (ItemOrdenRequest itemReq : items) {
+            Producto producto = productos.get(itemReq.getProductoId());
             ItemOrden item = ItemOrden.builder()
                     .producto(producto)
                     .nombreProducto(producto.getNombre())
@@ -113,45 +225,186 @@ public class OrdenService {
                     .cantidad(itemReq.getCantidad())
                     .build();
             item.calcularSubtotal();
-
-            orden.agregarItem(item);
-
-            // Descontar stock
-            producto.setStock(producto.getStock() - itemReq.getCantidad());
-            productoRepository.save(producto);
+            itemsOrden.add(item);
         }
 
-        // Calcular totales
-        orden.calcularTotales();
+        // Crear orden
+        Orden orden = Orden.builder()
+                .numeroOrden(generadorNumeroOrden.siguiente())
+                .usuario(usuario)
+                .direccionEnvio(direccionEnvio)
+                .regionEnvio(regionEnvio)
+                .comunaEnvio(comunaEnvio)
+                .notas(notas)
+                .estado(EstadoOrden.PENDIENTE)
+                .subtotal(BigDecimal.ZERO)
+                .descuento(BigDecimal.ZERO)
+                .total(BigDecimal.ZERO)
+                .build();
+        orden.calcularTotales(itemsOrden);
 
         Orden guardada = ordenRepository.save(orden);
-        return OrdenDTO.fromEntity(guardada);
+
+        // Items en un lote JDBC
+        itemOrdenRepository.insertarEnLote(guardada.getId(), itemsOrden);
+        estadisticasService.registrarCreacion(guardada.getEstado());
+        rankingService.registrarCreacion(guardada, itemsOrden);
+        eventosService.registrarCreacion(guardada);
+        if (clave != null) {
+            clave.setOrdenId(guardada.getId());
+        }
+        historialCache.invalidar(usuarioId);
+
+        return OrdenDTO.fromEntity(guardada, itemsOrden.stream()
+                .map(ItemOrdenDTO::fromEntity)
+                .collect(Collectors.toList()));
     }
 
     /**
-     * Actualiza el estado de una orden.
+     * Actualiza el estado de una orden. La fila se bloquea antes de validar la transición,
+     * así que dos cancelaciones concurrentes (o una junto al cambio masivo) no devuelven el
+     * stock dos veces.
      */
     public OrdenDTO actualizarEstado(Long id, EstadoOrden nuevoEstado) {
-        Orden orden = ordenRepository.findById(id)
+        Orden orden = ordenRepository.bloquearConUsuarioPorId(id)
                 .orElseThrow(() -> new RuntimeException("Orden no encontrada"));
 
         // Validar transición de estado
         validarTransicionEstado(orden.getEstado(), nuevoEstado);
 
-        // Si se cancela, devolver stock
+        // Si se cancela, devolver stock en un solo lote
         if (nuevoEstado == EstadoOrden.CANCELADA && orden.getEstado() != EstadoOrden.CANCELADA) {
+            Map<Long, Integer> devoluciones = new LinkedHashMap<>();
             for (ItemOrden item : orden.getItems()) {
-                Producto producto = item.getProducto();
-                if (producto != null) {
-                    producto.setStock(producto.getStock() + item.getCantidad());
-                    productoRepository.save(producto);
+                if (item.getProducto() != null) {
+                    devoluciones.merge(item.getProducto().getId(), item.getCantidad(), Integer::sum);
                 }
             }
+            stockService.liberar(devoluciones);
+            rankingService.registrarCancelacion(List.of(orden.getId()));
         }
 
+        estadisticasService.registrarTransicion(orden.getEstado(), nuevoEstado);
+        ventasService.registrarCambioEstado(orden, orden.getEstado(), nuevoEstado);
+        EstadoOrden anterior = orden.getEstado();
         orden.setEstado(nuevoEstado);
         Orden guardada = ordenRepository.save(orden);
-        return OrdenDTO.fromEntity(guardada);
+        eventosService.registrarCambioEstado(guardada, anterior);
+        OrdenDTO actualizada = aDTO(guardada);
+        historialCache.actualizar(actualizada);
+        return actualizada;
+    }
+
+    /**
+     * Cambia el estado de varias órdenes en una sola transacción.
+     * Cada orden se valida con las mismas reglas que el cambio individual; las que no
+     * pasan quedan rechazadas con su motivo y el resto se actualiza con una sola sentencia.
+     */
+    public CambioEstadoMasivoDTO actualizarEstados(List<Long> ids, EstadoOrden nuevoEstado) {
+        if (ids == null || ids.isEmpty()) {
+            throw new RuntimeException("Debe indicar al menos una orden");
+        }
+        LinkedHashSet<Long> unicos = new LinkedHashSet<>(ids);
+        if (unicos.size() > CAMBIO_MASIVO_MAX) {
+            throw new RuntimeException("No se pueden actualizar más de " + CAMBIO_MASIVO_MAX + " órdenes a la vez");
+        }
+
+        Map<Long, Orden> ordenes = ordenRepository.bloquearPorIds(unicos).stream()
+                .collect(Collectors.toMap(Orden::getId, Function.identity()));
+
+        // Validar cada orden y guardar el resultado en el orden de la solicitud
+        Map<Long, ResultadoOrden> resultados = new LinkedHashMap<>();
+        Map<Long, EstadoOrden> anteriores = new LinkedHashMap<>();
+        List<Orden> validas = new ArrayList<>();
+        for (Long id : unicos) {
+            Orden orden = ordenes.get(id);
+            if (orden == null) {
+                resultados.put(id, rechazo(id, null, "Orden no encontrada"));
+                continue;
+            }
+            try {
+                validarTransicionEstado(orden.getEstado(), nuevoEstado);
+            } catch (RuntimeException e) {
+                resultados.put(id, rechazo(id, orden.getEstado(), e.getMessage()));
+                continue;
+            }
+            anteriores.put(id, orden.getEstado());
+            validas.add(orden);
+            resultados.put(id, ResultadoOrden.builder()
+                    .id(id)
+                    .actualizada(true)
+                    .estadoAnterior(orden.getEstado())
+                    .build());
+        }
+
+        if (!validas.isEmpty()) {
+            // Si se cancelan, devolver el stock de todas las órdenes en un solo lote
+            if (nuevoEstado == EstadoOrden.CANCELADA) {
+                Map<Long, Integer> devoluciones = new LinkedHashMap<>();
+                for (Object[] fila : itemOrdenRepository.sumarCantidadesPorProducto(anteriores.keySet())) {
+                    devoluciones.put((Long) fila[0], ((Number) fila[1]).intValue());
+                }
+                stockService.liberar(devoluciones);
+                rankingService.registrarCancelacion(anteriores.keySet());
+            }
+
+            Map<EstadoOrden, Long> transiciones = anteriores.values().stream()
+                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+            transiciones.forEach((anterior, cantidad) ->
+                    estadisticasService.registrarTransicion(anterior, nuevoEstado, cantidad));
+            for (Orden orden : validas) {
+                ventasService.registrarCambioEstado(orden, orden.getEstado(), nuevoEstado);
+            }
+
+            ordenRepository.actualizarEstadoEnLote(anteriores.keySet(), nuevoEstado, LocalDateTime.now());
+
+            // Las órdenes ya están desasociadas: el cambio en memoria solo alimenta los eventos
+            validas.forEach(orden -> orden.setEstado(nuevoEstado));
+            eventosService.registrarCambiosEstado(validas, anteriores);
+            historialCache.invalidar(validas.stream()
+                    .map(orden -> orden.getUsuario().getId())
+                    .collect(Collectors.toSet()));
+        }
+
+        return CambioEstadoMasivoDTO.builder()
+                .estado(nuevoEstado)
+                .actualizadas(validas.size())
+                .rechazadas(resultados.size() - validas.size())
+                .resultados(new ArrayList<>(resultados.values()))
+                .build();
+    }
+
+    private static ResultadoOrden rechazo(Long id, EstadoOrden estadoAnterior, String error) {
+        return ResultadoOrden.builder()
+                .id(id)
+                .actualizada(false)
+                .estadoAnterior(estadoAnterior)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Convierte una orden a DTO cargando sus items en una sola consulta.
+     */
+    private OrdenDTO aDTO(Orden orden) {
+        return aDTOs(List.of(orden)).get(0);
+    }
+
+    /**
+     * Convierte órdenes a DTO con un número fijo de consultas: el usuario debe venir
+     * ya cargado y todos los items (con su producto) se obtienen en una sola consulta.
+     */
+    private List<OrdenDTO> aDTOs(List<Orden> ordenes) {
+        if (ordenes.isEmpty()) return new ArrayList<>();
+
+        List<Long> ids = ordenes.stream().map(Orden::getId).collect(Collectors.toList());
+        Map<Long, List<ItemOrdenDTO>> itemsPorOrden = itemOrdenRepository.findConProductoByOrdenIdIn(ids).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrden().getId(),
+                        Collectors.mapping(ItemOrdenDTO::fromEntity, Collectors.toList())));
+
+        return ordenes.stream()
+                .map(orden -> OrdenDTO.fromEntity(orden, itemsPorOrden.getOrDefault(orden.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -169,25 +422,15 @@ public class OrdenService {
      */
     @Transactional(readOnly = true)
     public List<OrdenDTO> obtenerUltimas() {
-        return ordenRepository.findTop10ByOrderByFechaCreacionDesc().stream()
-                .map(OrdenDTO::fromEntity)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Cuenta órdenes por estado.
-     */
-    @Transactional(readOnly = true)
-    public Long contarPorEstado(EstadoOrden estado) {
-        return ordenRepository.countByEstado(estado);
+        return aDTOs(ordenRepository.findTop10ByOrderByFechaCreacionDesc());
     }
 
     /**
-     * Suma ventas en un rango de fechas.
+     * Suma ventas en un rango de fechas (desde los buckets de ventas agregadas).
      */
     @Transactional(readOnly = true)
     public BigDecimal sumarVentas(LocalDateTime inicio, LocalDateTime fin) {
-        return ordenRepository.sumarVentasPorEstadoYFecha(EstadoOrden.PAGADA, inicio, fin);
+        return ventasService.sumar(inicio, fin);
     }
 
     /**
@@ -0,0 +1,24 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.ProductoDTO;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Estructura en memoria derivada del catálogo de productos activos.
+ * CatalogoService la notifica cada vez que aplica cambios, siempre bajo el mismo lock
+ * del escritor, así que las notificaciones llegan de a una y en orden.
+ */
+public interface OyenteCatalogo {
+
+    /**
+     * El catálogo se recargó completo: los productos dados son todos los activos.
+     */
+    void alRecargar(Collection<ProductoDTO> activos);
+
+    /**
+     * Cambiaron los productos con los IDs dados. Los que siguen activos vienen en
+     * actualizados; el resto se eliminó o desactivó.
+     */
+    void alActualizar(Set<Long> productoIds, Collection<ProductoDTO> actualizados);
+}
@@ -1,10 +1,13 @@
 package com.taxsiito.backend.service;
 
+import com.taxsiito.backend.dto.BusquedaFaqDTO;
 import com.taxsiito.backend.dto.PreguntaFrecuenteDTO;
 import com.taxsiito.backend.model.PreguntaFrecuente;
 import com.taxsiito.backend.repository.PreguntaFrecuenteRepository;
+import com.taxsiito.backend.util.Transacciones;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +22,7 @@ import java.util.stream.Collectors;
 public class PreguntaFrecuenteService {
 
     private final PreguntaFrecuenteRepository preguntaRepository;
+    private final IndiceFaqs indiceFaqs;
 
     /**
      * Obtiene todas las preguntas frecuentes activas.
@@ -61,14 +65,12 @@ public class PreguntaFrecuenteService {
     }
 
     /**
-     * Busca preguntas que contengan el texto dado.
+     * Busca las preguntas activas más relevantes para el texto (índice BM25 en memoria
+     * sobre pregunta, respuesta y categoría), tolerando errores de tipeo.
      */
-    @Transactional(readOnly = true)
-    public List<PreguntaFrecuenteDTO> buscar(String texto) {
-        return preguntaRepository.findByPreguntaContainingIgnoreCaseAndActivaTrue(texto)
-                .stream()
-                .map(PreguntaFrecuenteDTO::fromEntity)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BusquedaFaqDTO buscar(String texto, int limite) {
+        return indiceFaqs.buscar(texto, limite);
     }
 
     /**
@@ -76,7 +78,9 @@ public class PreguntaFrecuenteService {
      */
     public PreguntaFrecuenteDTO crear(PreguntaFrecuente pregunta) {
         PreguntaFrecuente guardada = preguntaRepository.save(pregunta);
-        return PreguntaFrecuenteDTO.fromEntity(guardada);
+        PreguntaFrecuenteDTO dto = PreguntaFrecuenteDTO.fromEntity(guardada);
+        Transacciones.despuesDelCommit(() -> indiceFaqs.indexar(dto));
+        return dto;
     }
 
     /**
@@ -103,7 +107,9 @@ public class PreguntaFrecuenteService {
         }
 
         PreguntaFrecuente guardada = preguntaRepository.save(existente);
-        return PreguntaFrecuenteDTO.fromEntity(guardada);
+        PreguntaFrecuenteDTO dto = PreguntaFrecuenteDTO.fromEntity(guardada);
+        Transacciones.despuesDelCommit(() -> indiceFaqs.indexar(dto));
+        return dto;
     }
 
     /**
@@ -114,6 +120,7 @@ public class PreguntaFrecuenteService {
             throw new RuntimeException("Pregunta no encontrada");
         }
         preguntaRepository.deleteById(id);
+        Transacciones.despuesDelCommit(() -> indiceFaqs.quitar(id));
     }
 
     /**
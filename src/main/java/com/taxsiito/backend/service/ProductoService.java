@@ -1,15 +1,31 @@
 package com.taxsiito.backend.service;
 
+import com.taxsiito.backend.dto.FacetaCategoriaDTO;
+import com.taxsiito.backend.dto.FiltroProductos;
+import com.taxsiito.backend.dto.PaginaDTO;
+import com.taxsiito.backend.dto.PaginaProductosDTO;
 import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.dto.RechazoStockDTO;
+import com.taxsiito.backend.dto.SugerenciaProductoDTO;
 import com.taxsiito.backend.model.Categoria;
 import com.taxsiito.backend.model.Producto;
 import com.taxsiito.backend.repository.CategoriaRepository;
 import com.taxsiito.backend.repository.ProductoRepository;
+import com.taxsiito.backend.repository.ProductoSpecifications;
+import com.taxsiito.backend.util.Cursores;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -20,8 +36,22 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductoService {
 
+    private static final int TAMANIO_BUSQUEDA = 20;
+    private static final int TAMANIO_BUSQUEDA_MAX = 100;
+    private static final int SUGERENCIAS = 8;
+    private static final int SUGERENCIAS_MAX = 20;
+    private static final int TAMANIO_PAGINA = 20;
+    private static final int TAMANIO_PAGINA_MAX = 100;
+    private static final Set<String> CAMPOS_ORDEN = Set.of("precio", "nombre", "fechaCreacion");
+
     private final ProductoRepository productoRepository;
     private final CategoriaRepository categoriaRepository;
+    private final CatalogoService catalogoService;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final SugerenciasProductos sugerencias;
+    private final MonitorStockBajo monitorStockBajo;
+    private final AcumuladorStock acumuladorStock;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene todos los productos.
@@ -34,33 +64,119 @@ public class ProductoService {
     }
 
     /**
-     * Obtiene solo los productos activos.
+     * Obtiene solo los productos activos, desde el snapshot del catálogo.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProductoDTO> obtenerActivos() {
-        return productoRepository.findByActivoTrue().stream()
-                .map(ProductoDTO::fromEntity)
-                .collect(Collectors.toList());
+        return catalogoService.obtenerActivos();
     }
 
     /**
-     * Obtiene un producto por ID.
+     * Listado de productos activos filtrado y ordenado en la base de datos, paginado por clave
+     * sobre (campo de orden, id). La primera página incluye los conteos por categoría con los
+     * mismos filtros, salvo el de categoría.
      */
     @Transactional(readOnly = true)
+    public PaginaProductosDTO listar(FiltroProductos filtro, String cursor, Integer tamanio) {
+        int limite = tamanio == null ? TAMANIO_PAGINA : Math.max(1, Math.min(tamanio, TAMANIO_PAGINA_MAX));
+        String campo = filtro.getOrden() == null || filtro.getOrden().isBlank() ? "nombre" : filtro.getOrden();
+        if (!CAMPOS_ORDEN.contains(campo)) {
+            throw new RuntimeException("Orden inválido: use precio, nombre o fechaCreacion");
+        }
+        boolean ascendente = filtro.getDireccion() == null || !filtro.getDireccion().equalsIgnoreCase("desc");
+        Sort.Direction direccion = ascendente ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        Specification<Producto> spec = ProductoSpecifications.conFiltro(filtro);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = Cursores.decodificar(cursor, 2);
+            try {
+                Long id = Long.valueOf(partes[1]);
+                spec = spec.and(switch (campo) {
+                    case "precio" -> ProductoSpecifications.despuesDe(campo, new BigDecimal(partes[0]), id, ascendente);
+                    case "fechaCreacion" -> ProductoSpecifications.despuesDe(campo, LocalDateTime.parse(partes[0]), id, ascendente);
+                    default -> ProductoSpecifications.despuesDe(campo, partes[0], id, ascendente);
+                });
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
+
+        // Un elemento extra indica si hay página siguiente; la categoría viene en la misma consulta
+        List<Producto> productos = productoRepository.findBy(spec, q -> q
+                .sortBy(Sort.by(new Sort.Order(direccion, campo), new Sort.Order(direccion, "id")))
+                .project("categoria")
+                .limit(limite + 1)
+                .all());
+
+        boolean hayMas = productos.size() > limite;
+        if (hayMas) {
+            productos = productos.subList(0, limite);
+        }
+        String siguienteCursor = null;
+        if (hayMas) {
+            Producto ultimo = productos.get(productos.size() - 1);
+            Object valor = switch (campo) {
+                case "precio" -> ultimo.getPrecio().toPlainString();
+                case "fechaCreacion" -> ultimo.getFechaCreacion();
+                default -> ultimo.getNombre();
+            };
+            siguienteCursor = Cursores.codificar(valor, ultimo.getId());
+        }
+
+        List<FacetaCategoriaDTO> facetas = null;
+        if (cursor == null || cursor.isBlank()) {
+            facetas = productoRepository.contarFacetasPorCategoria(filtro.getPrecioMin(), filtro.getPrecioMax(),
+                            Boolean.TRUE.equals(filtro.getConStock()), Boolean.TRUE.equals(filtro.getStockBajo()))
+                    .stream()
+                    .map(fila -> FacetaCategoriaDTO.builder()
+                            .categoriaId((Long) fila[0])
+                            .categoriaNombre((String) fila[1])
+                            .cantidad((Long) fila[2])
+                            .build())
+                    .collect(Collectors.toList());
+        }
+
+        return PaginaProductosDTO.builder()
+                .items(productos.stream().map(ProductoDTO::fromEntity).collect(Collectors.toList()))
+                .tamanio(productos.size())
+                .hayMas(hayMas)
+                .siguienteCursor(siguienteCursor)
+                .facetas(facetas)
+                .build();
+    }
+
+    /**
+     * Obtiene un producto por ID. Los activos salen del snapshot; los inactivos, de la base de datos.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<ProductoDTO> obtenerPorId(Long id) {
-        return productoRepository.findById(id)
+        Optional<ProductoDTO> activo = catalogoService.obtenerPorId(id);
+        if (activo.isPresent()) return activo;
+        return productoRepository.findConCategoriaByIdIn(List.of(id)).stream()
+                .findFirst()
                 .map(ProductoDTO::fromEntity);
     }
 
     /**
-     * Obtiene un producto por código.
+     * Obtiene un producto por código. Los activos salen del snapshot; los inactivos, de la base de datos.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<ProductoDTO> obtenerPorCodigo(String codigo) {
-        return productoRepository.findByCodigo(codigo)
+        Optional<ProductoDTO> activo = catalogoService.obtenerPorCodigo(codigo);
+        if (activo.isPresent()) return activo;
+        return productoRepository.findConCategoriaByCodigo(codigo)
                 .map(ProductoDTO::fromEntity);
     }
 
+    /**
+     * Catálogo en memoria actual. Sus datos y su versión (que cambia con cada modificación
+     * confirmada y con cada arranque) corresponden al mismo momento.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CatalogoService.Instantanea obtenerCatalogo() {
+        return catalogoService.obtener();
+    }
+
     /**
      * Crea un nuevo producto.
      */
@@ -77,6 +193,7 @@ public class ProductoService {
         }
 
         Producto guardado = productoRepository.save(producto);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.productos(List.of(guardado.getId())));
         return ProductoDTO.fromEntity(guardado);
     }
 
@@ -117,6 +234,7 @@ public class ProductoService {
         }
 
         Producto guardado = productoRepository.save(existente);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.productos(List.of(id)));
         return ProductoDTO.fromEntity(guardado);
     }
 
@@ -128,6 +246,7 @@ public class ProductoService {
             throw new RuntimeException("Producto no encontrado");
         }
         productoRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.productos(List.of(id)));
     }
 
     /**
@@ -137,53 +256,86 @@ public class ProductoService {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
         producto.setActivo(false);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.productos(List.of(id)));
         return ProductoDTO.fromEntity(productoRepository.save(producto));
     }
 
     /**
-     * Obtiene productos por categoría.
+     * Obtiene los productos activos de una categoría, desde el snapshot del catálogo.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProductoDTO> obtenerPorCategoria(Long categoriaId) {
-        return productoRepository.findByCategoriaIdAndActivoTrue(categoriaId).stream()
-                .map(ProductoDTO::fromEntity)
-                .collect(Collectors.toList());
+        return catalogoService.obtenerPorCategoria(categoriaId);
     }
 
     /**
-     * Busca productos por nombre.
+     * Busca productos activos por código, nombre o descripción, sin distinguir tildes ni mayúsculas.
+     * Los resultados salen del índice en memoria, ordenados por relevancia y paginados por cursor.
      */
-    @Transactional(readOnly = true)
-    public List<ProductoDTO> buscar(String nombre) {
-        return productoRepository.findByNombreContainingIgnoreCaseAndActivoTrue(nombre).stream()
-                .map(ProductoDTO::fromEntity)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaginaDTO<ProductoDTO> buscar(String texto, String cursor, Integer tamanio) {
+        int limite = tamanio == null ? TAMANIO_BUSQUEDA : Math.max(1, Math.min(tamanio, TAMANIO_BUSQUEDA_MAX));
+        catalogoService.asegurarCargado();
+        return indiceBusqueda.buscar(texto, cursor, limite);
     }
 
     /**
-     * Obtiene productos con stock bajo.
+     * Sugerencias de autocompletado para el texto escrito hasta ahora (prefijo de nombre o código).
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SugerenciaProductoDTO> sugerir(String texto, Integer limite) {
+        int cantidad = limite == null ? SUGERENCIAS : Math.max(1, Math.min(limite, SUGERENCIAS_MAX));
+        catalogoService.asegurarCargado();
+        return sugerencias.sugerir(texto, cantidad);
+    }
+
+    /**
+     * Obtiene los productos activos con stock bajo, desde el conjunto en memoria.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProductoDTO> obtenerConStockBajo() {
-        return productoRepository.findProductosConStockBajo().stream()
-                .map(ProductoDTO::fromEntity)
-                .collect(Collectors.toList());
+        catalogoService.asegurarCargado();
+        return monitorStockBajo.obtener();
+    }
+
+    /**
+     * Suscribe un cliente SSE a los cambios del conjunto de stock bajo.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter suscribirStockBajo() {
+        catalogoService.asegurarCargado();
+        return monitorStockBajo.suscribir();
     }
 
     /**
-     * Actualiza el stock de un producto.
+     * Actualiza el stock de un producto y espera a que el ajuste quede confirmado.
+     * El ajuste se agrupa con los demás del mismo producto que lleguen en la misma ventana.
+     * El producto se lee de la base de datos: el catálogo en memoria recibe el cambio un poco después.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductoDTO actualizarStock(Long id, int cantidad) {
-        Producto producto = productoRepository.findById(id)
+        acumuladorStock.ajustar(id, cantidad);
+        return productoRepository.findConCategoriaByIdIn(List.of(id)).stream()
+                .findFirst()
+                .map(ProductoDTO::fromEntity)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-        
-        int nuevoStock = producto.getStock() + cantidad;
-        if (nuevoStock < 0) {
-            throw new RuntimeException("Stock insuficiente");
-        }
-        
-        producto.setStock(nuevoStock);
-        return ProductoDTO.fromEntity(productoRepository.save(producto));
+    }
+
+    /**
+     * Encola un ajuste de stock sin esperar a que se aplique. Si se rechaza,
+     * queda en la lista de rechazos.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void encolarStock(Long id, int cantidad) {
+        acumuladorStock.encolar(id, cantidad);
+    }
+
+    /**
+     * Ajustes de stock encolados que se rechazaron recientemente.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<RechazoStockDTO> obtenerRechazosStock() {
+        return acumuladorStock.obtenerRechazos();
     }
 }
 
@@ -0,0 +1,397 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.PosicionRankingDTO;
+import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.model.ItemOrden;
+import com.taxsiito.backend.model.Orden;
+import com.taxsiito.backend.model.enums.EstadoOrden;
+import com.taxsiito.backend.model.enums.VentanaRanking;
+import com.taxsiito.backend.repository.ItemOrdenRepository;
+import com.taxsiito.backend.repository.OrdenArchivoRepository;
+import com.taxsiito.backend.repository.OrdenRepository;
+import com.taxsiito.backend.util.Transacciones;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Ranking en memoria de unidades vendidas por producto y por categoría, en todo el historial
+ * y en ventanas móviles de 7 y 30 días. Las órdenes canceladas no cuentan.
+ *
+ * Cada ranking es un conjunto ordenado por cantidad, así que el top-k se lee sin recorrer todos
+ * los productos. Las ventanas guardan un bucket por día: al cambiar el día se restan los buckets
+ * que salen de cada ventana. Se mantiene con las órdenes creadas y canceladas confirmadas en
+ * OrdenService y se reconstruye periódicamente desde el historial (incluidas las órdenes
+ * archivadas), lo que también corrige los cambios de categoría de los productos.
+ *
+ * Las ventas confirmadas mientras se reconstruye se guardan aparte. Antes de publicar el ranking
+ * nuevo se consulta, en la misma transacción de lectura (REPEATABLE READ), el estado de sus órdenes,
+ * y se aplican solo las que la lectura no incluyó: la creación de una orden que no vio y la
+ * cancelación de una orden que no vio cancelada.
+ */
+@Service
+@Slf4j
+public class RankingVentasService {
+
+    private static final int DIAS_BUCKETS = VentanaRanking.DIAS_30.getDias();
+
+    private final ItemOrdenRepository itemOrdenRepository;
+    private final OrdenRepository ordenRepository;
+    private final OrdenArchivoRepository archivoRepository;
+    private final CatalogoService catalogoService;
+    private final TransactionTemplate transactionTemplate;
+
+    private Ranking ranking = new Ranking(LocalDate.now());
+    /** Ventas aplicadas durante una reconstrucción en curso; nulo si no hay ninguna. */
+    private List<Venta> pendientes;
+    private final Object reconstruccion = new Object();
+
+    public RankingVentasService(ItemOrdenRepository itemOrdenRepository,
+                                OrdenRepository ordenRepository,
+                                OrdenArchivoRepository archivoRepository,
+                                CatalogoService catalogoService,
+                                PlatformTransactionManager transactionManager) {
+        this.itemOrdenRepository = itemOrdenRepository;
+        this.ordenRepository = ordenRepository;
+        this.archivoRepository = archivoRepository;
+        this.catalogoService = catalogoService;
+        // Todas las lecturas de una reconstrucción en una transacción, para que vean el mismo estado
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Suma los items de una orden nueva cuando la transacción actual confirme.
+     */
+    public void registrarCreacion(Orden orden, List<ItemOrden> items) {
+        LocalDate dia = orden.getFechaCreacion().toLocalDate();
+        List<Venta> ventas = new ArrayList<>(items.size());
+        for (ItemOrden item : items) {
+            if (item.getProducto() == null) continue;
+            Long categoriaId = item.getProducto().getCategoria() != null
+                    ? item.getProducto().getCategoria().getId()
+                    : null;
+            ventas.add(new Venta(orden.getId(), dia, item.getProducto().getId(), categoriaId, item.getCantidad()));
+        }
+        Transacciones.despuesDelCommit(() -> aplicar(ventas));
+    }
+
+    /**
+     * Resta los items de órdenes que se cancelan cuando la transacción actual confirme.
+     * Debe llamarse solo para órdenes que no estaban canceladas.
+     */
+    public void registrarCancelacion(Collection<Long> ordenIds) {
+        if (ordenIds.isEmpty()) return;
+        List<Venta> ventas = new ArrayList<>();
+        for (Object[] fila : itemOrdenRepository.sumarVendidosPorOrden(ordenIds)) {
+            ventas.add(new Venta((Long) fila[0], ((LocalDateTime) fila[1]).toLocalDate(), (Long) fila[2],
+                    (Long) fila[3], -((Number) fila[4]).longValue()));
+        }
+        Transacciones.despuesDelCommit(() -> aplicar(ventas));
+    }
+
+    /**
+     * Productos más vendidos en la ventana dada. El nombre sale del catálogo (nulo si el producto
+     * ya no está activo).
+     */
+    public List<PosicionRankingDTO> obtenerProductos(VentanaRanking ventana, int limite) {
+        List<Posicion> top = top(ventana, limite, true);
+        List<PosicionRankingDTO> resultado = new ArrayList<>(top.size());
+        for (Posicion posicion : top) {
+            String nombre = catalogoService.obtenerPorId(posicion.id).map(ProductoDTO::getNombre).orElse(null);
+            resultado.add(aDTO(resultado.size() + 1, posicion, nombre));
+        }
+        return resultado;
+    }
+
+    /**
+     * Categorías más vendidas en la ventana dada. El nombre sale del catálogo (nulo si la
+     * categoría no tiene productos activos).
+     */
+    public List<PosicionRankingDTO> obtenerCategorias(VentanaRanking ventana, int limite) {
+        List<Posicion> top = top(ventana, limite, false);
+        List<PosicionRankingDTO> resultado = new ArrayList<>(top.size());
+        for (Posicion posicion : top) {
+            List<ProductoDTO> productos = catalogoService.obtenerPorCategoria(posicion.id);
+            String nombre = productos.isEmpty() ? null : productos.get(0).getCategoriaNombre();
+            resultado.add(aDTO(resultado.size() + 1, posicion, nombre));
+        }
+        return resultado;
+    }
+
+    /**
+     * Construye el ranking al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye el ranking desde el historial: totales con una consulta agrupada sobre las
+     * órdenes activas y otra sobre las archivadas, y los buckets diarios de los últimos 30 días.
+     */
+    @Scheduled(fixedDelayString = "${taxsiito.ranking.reconstruccion-ms:3600000}",
+               initialDelayString = "${taxsiito.ranking.reconstruccion-ms:3600000}")
+    public void reconstruir() {
+        synchronized (reconstruccion) {
+            synchronized (this) {
+                pendientes = new ArrayList<>();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> reconstruirDesdeHistorial());
+            } finally {
+                synchronized (this) {
+                    pendientes = null;
+                }
+            }
+        }
+    }
+
+    private void reconstruirDesdeHistorial() {
+        LocalDate hoy = LocalDate.now();
+        Ranking nuevo = new Ranking(hoy);
+
+        List<Object[]> totales = new ArrayList<>(itemOrdenRepository.sumarVendidosPorProducto());
+        totales.addAll(archivoRepository.sumarVendidosPorProducto());
+        for (Object[] fila : totales) {
+            Long productoId = (Long) fila[0];
+            Long categoriaId = (Long) fila[1];
+            long cantidad = ((Number) fila[2]).longValue();
+            nuevo.productos.get(VentanaRanking.TOTAL).sumar(productoId, cantidad);
+            if (categoriaId != null) {
+                nuevo.categorias.get(VentanaRanking.TOTAL).sumar(categoriaId, cantidad);
+            }
+        }
+
+        LocalDateTime desde = hoy.minusDays(DIAS_BUCKETS - 1L).atStartOfDay();
+        for (Object[] fila : itemOrdenRepository.sumarVendidosDesde(desde)) {
+            nuevo.sumarEnVentanas(new Venta(null, ((LocalDateTime) fila[0]).toLocalDate(), (Long) fila[1],
+                    (Long) fila[2], ((Number) fila[3]).longValue()));
+        }
+
+        // Las ventas que llegaron durante la lectura se aplican sobre el ranking nuevo antes de publicarlo,
+        // salvo las que la lectura ya incluyó. Se revisan por tandas hasta que no lleguen más.
+        List<Venta> faltantes = new ArrayList<>();
+        int revisadas = 0;
+        while (true) {
+            List<Venta> llegadas;
+            synchronized (this) {
+                if (pendientes.size() == revisadas) {
+                    pendientes = null;
+                    ranking = nuevo;
+                    aplicar(faltantes);
+                    break;
+                }
+                llegadas = new ArrayList<>(pendientes.subList(revisadas, pendientes.size()));
+            }
+            revisadas += llegadas.size();
+            faltantes.addAll(noIncluidas(llegadas));
+        }
+        log.debug("Ranking de ventas reconstruido: {} productos",
+                nuevo.productos.get(VentanaRanking.TOTAL).valores.size());
+    }
+
+    /**
+     * Ventas que la lectura de la reconstrucción no incluyó, según el estado de sus órdenes
+     * en la misma transacción.
+     */
+    private List<Venta> noIncluidas(List<Venta> ventas) {
+        Set<Long> ordenIds = new HashSet<>();
+        ventas.forEach(venta -> ordenIds.add(venta.ordenId));
+        Map<Long, EstadoOrden> vistas = new HashMap<>();
+        for (Object[] fila : ordenRepository.findEstadosByIdIn(ordenIds)) {
+            vistas.put((Long) fila[0], (EstadoOrden) fila[1]);
+        }
+
+        List<Venta> resultado = new ArrayList<>();
+        for (Venta venta : ventas) {
+            EstadoOrden estado = vistas.get(venta.ordenId);
+            boolean incluida = venta.cantidad > 0
+                    ? estado != null
+                    : estado == EstadoOrden.CANCELADA;
+            if (!incluida) {
+                resultado.add(venta);
+            }
+        }
+        return resultado;
+    }
+
+    private synchronized void aplicar(List<Venta> ventas) {
+        if (pendientes != null) {
+            pendientes.addAll(ventas);
+        }
+        avanzarDia();
+        for (Venta venta : ventas) {
+            ranking.productos.get(VentanaRanking.TOTAL).sumar(venta.productoId, venta.cantidad);
+            if (venta.categoriaId != null) {
+                ranking.categorias.get(VentanaRanking.TOTAL).sumar(venta.categoriaId, venta.cantidad);
+            }
+            ranking.sumarEnVentanas(venta);
+        }
+    }
+
+    private synchronized List<Posicion> top(VentanaRanking ventana, int limite, boolean porProducto) {
+        avanzarDia();
+        Tablero tablero = (porProducto ? ranking.productos : ranking.categorias).get(ventana);
+        List<Posicion> top = new ArrayList<>(limite);
+        Iterator<Posicion> it = tablero.orden.iterator();
+        while (it.hasNext() && top.size() < limite) {
+            top.add(it.next());
+        }
+        return top;
+    }
+
+    /**
+     * Retira de las ventanas los días que ya quedaron fuera (se llama con el lock tomado).
+     */
+    private void avanzarDia() {
+        LocalDate hoy = LocalDate.now();
+        if (hoy.isAfter(ranking.hoy)) {
+            ranking.avanzar(hoy);
+        }
+    }
+
+    private static PosicionRankingDTO aDTO(int posicion, Posicion entrada, String nombre) {
+        return PosicionRankingDTO.builder()
+                .posicion(posicion)
+                .id(entrada.id)
+                .nombre(nombre)
+                .cantidad(entrada.cantidad)
+                .build();
+    }
+
+    private static boolean enVentana(LocalDate dia, LocalDate hoy, VentanaRanking ventana) {
+        return !dia.isAfter(hoy) && dia.isAfter(hoy.minusDays(ventana.getDias()));
+    }
+
+    /**
+     * Unidades vendidas (negativas si se cancelan) de un producto en un día. La orden es nula
+     * en las ventas leídas del historial.
+     */
+    private static class Venta {
+        private final Long ordenId;
+        private final LocalDate dia;
+        private final Long productoId;
+        private final Long categoriaId;
+        private final long cantidad;
+
+        Venta(Long ordenId, LocalDate dia, Long productoId, Long categoriaId, long cantidad) {
+            this.ordenId = ordenId;
+            this.dia = dia;
+            this.productoId = productoId;
+            this.categoriaId = categoriaId;
+            this.cantidad = cantidad;
+        }
+    }
+
+    /**
+     * Rankings de todas las ventanas y buckets diarios de los últimos 30 días.
+     */
+    private static class Ranking {
+
+        private LocalDate hoy;
+        private final Map<VentanaRanking, Tablero> productos = new EnumMap<>(VentanaRanking.class);
+        private final Map<VentanaRanking, Tablero> categorias = new EnumMap<>(VentanaRanking.class);
+        private final TreeMap<LocalDate, List<Venta>> buckets = new TreeMap<>();
+
+        Ranking(LocalDate hoy) {
+            this.hoy = hoy;
+            for (VentanaRanking ventana : VentanaRanking.values()) {
+                productos.put(ventana, new Tablero());
+                categorias.put(ventana, new Tablero());
+            }
+        }
+
+        /**
+         * Suma la venta en las ventanas que incluyen su día y la guarda en el bucket del día.
+         */
+        void sumarEnVentanas(Venta venta) {
+            if (!enVentana(venta.dia, hoy, VentanaRanking.DIAS_30)) return;
+            buckets.computeIfAbsent(venta.dia, d -> new ArrayList<>()).add(venta);
+            for (VentanaRanking ventana : List.of(VentanaRanking.DIAS_7, VentanaRanking.DIAS_30)) {
+                if (enVentana(venta.dia, hoy, ventana)) {
+                    sumar(ventana, venta, 1);
+                }
+            }
+        }
+
+        /**
+         * Mueve el día actual y resta los buckets que salen de cada ventana.
+         */
+        void avanzar(LocalDate nuevoHoy) {
+            for (Map.Entry<LocalDate, List<Venta>> bucket : buckets.entrySet()) {
+                for (VentanaRanking ventana : List.of(VentanaRanking.DIAS_7, VentanaRanking.DIAS_30)) {
+                    if (enVentana(bucket.getKey(), hoy, ventana) && !enVentana(bucket.getKey(), nuevoHoy, ventana)) {
+                        bucket.getValue().forEach(venta -> sumar(ventana, venta, -1));
+                    }
+                }
+            }
+            buckets.headMap(nuevoHoy.minusDays(DIAS_BUCKETS - 1L)).clear();
+            hoy = nuevoHoy;
+        }
+
+        private void sumar(VentanaRanking ventana, Venta venta, int signo) {
+            productos.get(ventana).sumar(venta.productoId, signo * venta.cantidad);
+            if (venta.categoriaId != null) {
+                categorias.get(ventana).sumar(venta.categoriaId, signo * venta.cantidad);
+            }
+        }
+    }
+
+    /**
+     * Cantidades por ID con su orden de mayor a menor (empates por ID).
+     */
+    private static class Tablero {
+
+        private static final Comparator<Posicion> MAYOR_PRIMERO = Comparator
+                .comparingLong((Posicion p) -> p.cantidad).reversed()
+                .thenComparing(p -> p.id);
+
+        private final Map<Long, Long> valores = new HashMap<>();
+        private final TreeSet<Posicion> orden = new TreeSet<>(MAYOR_PRIMERO);
+
+        void sumar(Long id, long delta) {
+            if (delta == 0) return;
+            Long anterior = valores.get(id);
+            if (anterior != null) {
+                orden.remove(new Posicion(id, anterior));
+            }
+            long nuevo = (anterior != null ? anterior : 0) + delta;
+            if (nuevo > 0) {
+                valores.put(id, nuevo);
+                orden.add(new Posicion(id, nuevo));
+            } else {
+                valores.remove(id);
+            }
+        }
+    }
+
+    private static class Posicion {
+        private final Long id;
+        private final long cantidad;
+
+        Posicion(Long id, long cantidad) {
+            this.id = id;
+            this.cantidad = cantidad;
+        }
+    }
+}
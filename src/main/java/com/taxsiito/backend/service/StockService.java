@@ -0,0 +1,135 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.repository.ProductoRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de reserva de stock.
+ * Nunca lee el stock para modificarlo en Java: cada cambio es un UPDATE condicional
+ * atómico, por lo que checkouts concurrentes (en distintos hilos o nodos) no pierden
+ * actualizaciones ni sobrevenden.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockService {
+
+    private final ProductoRepository productoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Reserva (descuenta) stock de varios productos en un solo lote.
+     * Informa el resultado de cada producto; si la reserva no es completa,
+     * quien llama debe lanzar una excepción para revertir las reservas exitosas.
+     */
+    public ResultadoReserva reservar(Map<Long, Integer> cantidades) {
+        int[] filas = productoRepository.reservarStockEnLote(cantidades);
+
+        List<ItemReserva> items = new ArrayList<>(cantidades.size());
+        List<Long> descontados = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : cantidades.entrySet()) {
+            boolean reservado = filas[i++] > 0;
+            items.add(new ItemReserva(entry.getKey(), entry.getValue(), reservado));
+            if (reservado) {
+                descontados.add(entry.getKey());
+            }
+        }
+        if (!descontados.isEmpty()) {
+            eventPublisher.publishEvent(CatalogoModificadoEvent.stock(descontados));
+        }
+        return new ResultadoReserva(items);
+    }
+
+    /**
+     * Devuelve stock a varios productos en un solo lote.
+     */
+    public void liberar(Map<Long, Integer> cantidades) {
+        productoRepository.liberarStockEnLote(cantidades);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.stock(cantidades.keySet()));
+    }
+
+    /**
+     * Ajusta el stock de un producto sumando la cantidad dada (negativa para descontar).
+     */
+    public void ajustar(Long productoId, int cantidad) {
+        if (productoRepository.ajustarStock(productoId, cantidad) == 0) {
+            if (!productoRepository.existsById(productoId)) {
+                throw new RuntimeException("Producto no encontrado");
+            }
+            throw new RuntimeException("Stock insuficiente");
+        }
+        eventPublisher.publishEvent(CatalogoModificadoEvent.stock(List.of(productoId)));
+    }
+
+    /**
+     * Ajusta el stock de varios productos en un solo lote, una fila por producto.
+     * Retorna los IDs cuyo ajuste no se aplicó (producto inexistente o stock insuficiente).
+     */
+    public Set<Long> ajustarEnLote(Map<Long, Integer> cantidades) {
+        int[] filas = productoRepository.ajustarStockEnLote(cantidades);
+
+        Set<Long> rechazados = new HashSet<>();
+        List<Long> aplicados = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : cantidades.entrySet()) {
+            if (filas[i++] == 0) {
+                rechazados.add(entry.getKey());
+            } else {
+                aplicados.add(entry.getKey());
+            }
+        }
+        if (!aplicados.isEmpty()) {
+            eventPublisher.publishEvent(CatalogoModificadoEvent.stock(aplicados));
+        }
+        return rechazados;
+    }
+
+    /**
+     * Resultado de una reserva de stock para un producto.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ItemReserva {
+        private Long productoId;
+        private Integer cantidad;
+        private boolean reservado;
+    }
+
+    /**
+     * Resultado de una reserva de stock para varios productos.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ResultadoReserva {
+        private List<ItemReserva> items;
+
+        /**
+         * Indica si se reservó el stock de todos los productos.
+         */
+        public boolean isCompleta() {
+            return items.stream().allMatch(ItemReserva::isReservado);
+        }
+
+        /**
+         * IDs de los productos cuyo stock no alcanzó.
+         */
+        public List<Long> getRechazados() {
+            return items.stream()
+                    .filter(item -> !item.isReservado())
+                    .map(ItemReserva::getProductoId)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.dto.SugerenciaProductoDTO;
+import com.taxsiito.backend.util.Textos;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Autocompletado por prefijo sobre el nombre y el código de los productos activos.
+ *
+ * Las claves (sin tildes, en minúsculas y con las palabras separadas por un espacio) se guardan
+ * ordenadas, de modo que las sugerencias para un prefijo son un rango contiguo: la consulta cuesta
+ * una búsqueda logarítmica más las k claves leídas. Primero se sugieren los productos cuyo nombre
+ * o código empieza con el prefijo y luego aquellos con otra palabra del nombre que empieza con él.
+ *
+ * El costo es de memoria: un nombre de n palabras genera n + 1 claves. Con productos de 4 palabras
+ * el índice ocupa unos 650 bytes por producto (650 MB con 1.000.000), la mitad en claves de sufijo
+ * (ver SugerenciasProductosRendimientoTest).
+ */
+@Component
+public class SugerenciasProductos implements OyenteCatalogo {
+
+    private static final char FIN_CLAVE = '\u0000';
+
+    private volatile Prefijos prefijos = new Prefijos();
+
+    @Override
+    public void alRecargar(Collection<ProductoDTO> activos) {
+        Prefijos nuevos = new Prefijos();
+        activos.forEach(nuevos::agregar);
+        prefijos = nuevos;
+    }
+
+    @Override
+    public void alActualizar(Set<Long> productoIds, Collection<ProductoDTO> actualizados) {
+        Prefijos actuales = prefijos;
+        Set<Long> vigentes = new HashSet<>();
+        for (ProductoDTO producto : actualizados) {
+            actuales.agregar(producto);
+            vigentes.add(producto.getId());
+        }
+        productoIds.stream()
+                .filter(id -> !vigentes.contains(id))
+                .forEach(actuales::eliminar);
+    }
+
+    /**
+     * Hasta limite sugerencias para el texto dado, sin productos repetidos.
+     */
+    public List<SugerenciaProductoDTO> sugerir(String texto, int limite) {
+        String prefijo = String.join(" ", Textos.tokenizar(texto));
+        if (prefijo.isEmpty()) return Collections.emptyList();
+
+        Prefijos actuales = prefijos;
+        Map<Long, SugerenciaProductoDTO> sugerencias = new LinkedHashMap<>();
+        recolectar(actuales.inicios, prefijo, limite, sugerencias);
+        recolectar(actuales.palabras, prefijo, limite, sugerencias);
+        return new ArrayList<>(sugerencias.values());
+    }
+
+    private static void recolectar(NavigableMap<String, SugerenciaProductoDTO> claves, String prefijo, int limite,
+                                   Map<Long, SugerenciaProductoDTO> sugerencias) {
+        if (sugerencias.size() >= limite) return;
+        for (SugerenciaProductoDTO sugerencia
+                : claves.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false).values()) {
+            sugerencias.putIfAbsent(sugerencia.getId(), sugerencia);
+            if (sugerencias.size() >= limite) return;
+        }
+    }
+
+    /**
+     * Claves ordenadas de nombres y códigos. Cada clave termina en el ID del producto para
+     * que dos productos con el mismo nombre no se pisen. Un solo escritor a la vez.
+     */
+    private static final class Prefijos {
+
+        /** Nombre y código completos. */
+        private final NavigableMap<String, SugerenciaProductoDTO> inicios = new ConcurrentSkipListMap<>();
+        /** El nombre a partir de cada una de sus palabras siguientes a la primera. */
+        private final NavigableMap<String, SugerenciaProductoDTO> palabras = new ConcurrentSkipListMap<>();
+        private final Map<Long, List<String>> clavesPorProducto = new ConcurrentHashMap<>();
+
+        void agregar(ProductoDTO producto) {
+            SugerenciaProductoDTO sugerencia = SugerenciaProductoDTO.fromProducto(producto);
+            String sufijo = FIN_CLAVE + String.valueOf(producto.getId());
+            List<String> claves = new ArrayList<>();
+
+            List<String> nombre = Textos.tokenizar(producto.getNombre());
+            String codigo = String.join(" ", Textos.tokenizar(producto.getCodigo()));
+            if (!nombre.isEmpty()) {
+                claves.add(String.join(" ", nombre) + sufijo);
+            }
+            if (!codigo.isEmpty()) {
+                claves.add(codigo + sufijo);
+            }
+            claves.forEach(clave -> inicios.put(clave, sugerencia));
+            for (int i = 1; i < nombre.size(); i++) {
+                String clave = String.join(" ", nombre.subList(i, nombre.size())) + sufijo;
+                palabras.put(clave, sugerencia);
+                claves.add(clave);
+            }
+            // Las claves viejas se quitan después de publicar las nuevas
+            List<String> anteriores = clavesPorProducto.put(producto.getId(), claves);
+            if (anteriores != null) {
+                anteriores.stream()
+                        .filter(clave -> !claves.contains(clave))
+                        .forEach(this::quitar);
+            }
+        }
+
+        void eliminar(Long productoId) {
+            List<String> claves = clavesPorProducto.remove(productoId);
+            if (claves != null) {
+                claves.forEach(this::quitar);
+            }
+        }
+
+        private void quitar(String clave) {
+            inicios.remove(clave);
+            palabras.remove(clave);
+        }
+    }
+}
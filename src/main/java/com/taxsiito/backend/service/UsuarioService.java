@@ -22,6 +22,7 @@ import java.util.stream.Collectors;
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
+    private final HistorialOrdenesCache historialCache;
 
     /**
      * Obtiene todos los usuarios.
@@ -115,6 +116,8 @@ public class UsuarioService {
         }
 
         Usuario guardado = usuarioRepository.save(existente);
+        // El historial de órdenes cacheado incluye el nombre y correo del usuario
+        historialCache.invalidar(id);
         return UsuarioDTO.fromEntity(guardado);
     }
 
@@ -126,6 +129,7 @@ public class UsuarioService {
             throw new RuntimeException("Usuario no encontrado");
         }
         usuarioRepository.deleteById(id);
+        historialCache.invalidar(id);
     }
 
     /**
@@ -0,0 +1,215 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.VentaAgregadaDTO;
+import com.taxsiito.backend.model.Orden;
+import com.taxsiito.backend.model.VentaAgregada;
+import com.taxsiito.backend.model.enums.EstadoOrden;
+import com.taxsiito.backend.model.enums.GranularidadVenta;
+import com.taxsiito.backend.repository.OrdenRepository;
+import com.taxsiito.backend.repository.SecuenciaRepository;
+import com.taxsiito.backend.repository.VentaAgregadaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de ventas agregadas por hora y por día (hora local de America/Santiago).
+ * Los buckets se actualizan en la misma transacción en que una orden entra o sale
+ * del estado PAGADA, por lo que las consultas de ventas leen solo los buckets.
+ * La resolución de las consultas es de una hora.
+ *
+ * Acumular y reconstruir se coordinan con la fila "ventas_agregadas" de la tabla secuencias:
+ * cada transacción que acumula la bloquea en modo compartido y la reconstrucción en modo exclusivo,
+ * así que la reconstrucción espera a las transacciones en curso y las nuevas la esperan a ella,
+ * en todas las instancias.
+ */
+@Service
+@Transactional
+@Slf4j
+public class VentasAgregadasService {
+
+    private static final int TAMANIO_LOTE = 1000;
+    private static final String BLOQUEO = "ventas_agregadas";
+
+    private final VentaAgregadaRepository ventaRepository;
+    private final OrdenRepository ordenRepository;
+    private final SecuenciaRepository secuenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId zona;
+
+    public VentasAgregadasService(VentaAgregadaRepository ventaRepository,
+                                  OrdenRepository ordenRepository,
+                                  SecuenciaRepository secuenciaRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${taxsiito.ventas.zona:America/Santiago}") String zona) {
+        this.ventaRepository = ventaRepository;
+        this.ordenRepository = ordenRepository;
+        this.secuenciaRepository = secuenciaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.zona = ZoneId.of(zona);
+    }
+
+    /**
+     * Actualiza los buckets si la orden entra o sale del estado PAGADA.
+     */
+    public void registrarCambioEstado(Orden orden, EstadoOrden anterior, EstadoOrden nuevo) {
+        if (anterior != EstadoOrden.PAGADA && nuevo == EstadoOrden.PAGADA) {
+            acumular(orden.getFechaCreacion(), 1, orden.getSubtotal(), orden.getDescuento(), orden.getTotal());
+        } else if (anterior == EstadoOrden.PAGADA && nuevo != EstadoOrden.PAGADA) {
+            acumular(orden.getFechaCreacion(), -1, negar(orden.getSubtotal()),
+                    negar(orden.getDescuento()), negar(orden.getTotal()));
+        }
+    }
+
+    /**
+     * Suma el total de ventas de órdenes PAGADA creadas en el rango dado (hora local de la zona de ventas).
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal sumar(LocalDateTime desde, LocalDateTime hasta) {
+        LocalDateTime horaInicio = desde.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime horaFin = hasta.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        if (!horaFin.isAfter(horaInicio)) return BigDecimal.ZERO;
+
+        LocalDateTime diaInicio = horaInicio.equals(horaInicio.truncatedTo(ChronoUnit.DAYS))
+                ? horaInicio
+                : horaInicio.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime diaFin = horaFin.truncatedTo(ChronoUnit.DAYS);
+        if (!diaFin.isAfter(diaInicio)) {
+            // Rango dentro de un mismo día: solo buckets por hora
+            diaInicio = horaFin;
+            diaFin = horaFin;
+        }
+        return ventaRepository.sumarTotal(horaInicio, diaInicio, diaFin, horaFin);
+    }
+
+    /**
+     * Obtiene la serie de buckets de ventas en el rango dado.
+     */
+    @Transactional(readOnly = true)
+    public List<VentaAgregadaDTO> obtenerSerie(LocalDateTime desde, LocalDateTime hasta, GranularidadVenta granularidad) {
+        ChronoUnit unidad = granularidad == GranularidadVenta.DIA ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+        return ventaRepository.findByGranularidadAndInicioGreaterThanEqualAndInicioLessThanOrderByInicioAsc(
+                        granularidad, desde.truncatedTo(unidad), hasta)
+                .stream()
+                .map(VentaAgregadaDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reconstruye todos los buckets desde las órdenes PAGADA existentes, leyéndolas por lotes.
+     * Mientras dura, las órdenes que entran o salen del estado PAGADA esperan a que termine.
+     */
+    public int reconstruir() {
+        bloquearExclusivo();
+        return reconstruirBloqueado();
+    }
+
+    /**
+     * Construye los buckets al iniciar si aún no existen. Si varias instancias inician a la vez,
+     * solo la primera en obtener el bloqueo los construye.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void inicializar() {
+        if (ventaRepository.count() > 0) return;
+        transactionTemplate.executeWithoutResult(status -> {
+            bloquearExclusivo();
+            // Se vuelve a contar después del bloqueo: otra instancia pudo construirlos mientras se esperaba
+            if (ventaRepository.count() == 0) {
+                reconstruirBloqueado();
+            }
+        });
+    }
+
+    /**
+     * Debe ser la primera sentencia de la transacción: con REPEATABLE READ, las lecturas
+     * posteriores ven todo lo confirmado por las transacciones que tenían el bloqueo compartido.
+     */
+    private void bloquearExclusivo() {
+        if (secuenciaRepository.bloquearExclusivo(BLOQUEO) == null) {
+            // Base sin la fila de la migración V7
+            secuenciaRepository.crearSiNoExiste(BLOQUEO);
+            secuenciaRepository.bloquearExclusivo(BLOQUEO);
+        }
+    }
+
+    private int reconstruirBloqueado() {
+        ventaRepository.deleteAllInBatch();
+
+        Map<GranularidadVenta, Map<LocalDateTime, VentaAgregada>> buckets = new HashMap<>();
+        long ultimoId = 0;
+        int ordenes = 0;
+        List<Object[]> lote;
+        do {
+            lote = ordenRepository.findResumenVentas(EstadoOrden.PAGADA, ultimoId, PageRequest.of(0, TAMANIO_LOTE));
+            for (Object[] fila : lote) {
+                ultimoId = (Long) fila[0];
+                LocalDateTime fecha = aZonaVentas((LocalDateTime) fila[1]);
+                for (GranularidadVenta granularidad : GranularidadVenta.values()) {
+                    VentaAgregada bucket = buckets
+                            .computeIfAbsent(granularidad, g -> new HashMap<>())
+                            .computeIfAbsent(inicioBucket(fecha, granularidad), inicio -> VentaAgregada.builder()
+                                    .granularidad(granularidad)
+                                    .inicio(inicio)
+                                    .build());
+                    bucket.setCantidadOrdenes(bucket.getCantidadOrdenes() + 1);
+                    bucket.setSubtotal(bucket.getSubtotal().add(noNulo((BigDecimal) fila[2])));
+                    bucket.setDescuento(bucket.getDescuento().add(noNulo((BigDecimal) fila[3])));
+                    bucket.setTotal(bucket.getTotal().add(noNulo((BigDecimal) fila[4])));
+                }
+                ordenes++;
+            }
+        } while (lote.size() == TAMANIO_LOTE);
+
+        List<VentaAgregada> todos = new ArrayList<>();
+        buckets.values().forEach(porInicio -> todos.addAll(porInicio.values()));
+        ventaRepository.saveAll(todos);
+        log.info("Ventas agregadas reconstruidas: {} órdenes en {} buckets", ordenes, todos.size());
+        return ordenes;
+    }
+
+    private void acumular(LocalDateTime fechaCreacion, long cantidad, BigDecimal subtotal,
+                          BigDecimal descuento, BigDecimal total) {
+        secuenciaRepository.bloquearCompartido(BLOQUEO);
+        LocalDateTime fecha = aZonaVentas(fechaCreacion);
+        for (GranularidadVenta granularidad : GranularidadVenta.values()) {
+            ventaRepository.acumular(granularidad.name(), inicioBucket(fecha, granularidad), cantidad,
+                    noNulo(subtotal), noNulo(descuento), noNulo(total));
+        }
+    }
+
+    /**
+     * Convierte una fecha de la zona del servidor a la zona de ventas.
+     */
+    private LocalDateTime aZonaVentas(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).withZoneSameInstant(zona).toLocalDateTime();
+    }
+
+    private static LocalDateTime inicioBucket(LocalDateTime fecha, GranularidadVenta granularidad) {
+        return fecha.truncatedTo(granularidad == GranularidadVenta.DIA ? ChronoUnit.DAYS : ChronoUnit.HOURS);
+    }
+
+    private static BigDecimal noNulo(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal negar(BigDecimal valor) {
+        return noNulo(valor).negate();
+    }
+}
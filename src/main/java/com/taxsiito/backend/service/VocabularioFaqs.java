@@ -0,0 +1,186 @@
+package com.taxsiito.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vocabulario de las preguntas frecuentes para corregir errores de tipeo ("iba", "electronika").
+ *
+ * Cada palabra se indexa por sus trigramas (con dos marcas de borde a cada lado). Para corregir
+ * una palabra se cuentan los trigramas que comparte con las del vocabulario, se descartan las que
+ * comparten menos de los que puede conservar una palabra a la distancia permitida, y las
+ * restantes se verifican con una distancia de edición acotada (con transposiciones). Las palabras
+ * cortas tienen pocos trigramas, así que se comparan directamente con las de largo similar.
+ *
+ * Lo modifica un solo escritor a la vez (IndiceFaqs); las consultas leen en paralelo.
+ */
+class VocabularioFaqs {
+
+    private static final char BORDE = '$';
+    private static final int LARGO_CORTO = 3;
+
+    private static final Comparator<Candidato> POR_CERCANIA = Comparator
+            .comparingInt(Candidato::getDistancia)
+            .thenComparing(Comparator.comparingInt(Candidato::getFrecuencia).reversed())
+            .thenComparing(Candidato::getPalabra);
+
+    /** Cantidad de preguntas en que aparece cada palabra. */
+    private final Map<String, Integer> frecuencias = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> trigramas = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<String>> cortasPorLargo = new ConcurrentHashMap<>();
+
+    boolean contiene(String palabra) {
+        return frecuencias.containsKey(palabra);
+    }
+
+    int tamanio() {
+        return frecuencias.size();
+    }
+
+    /**
+     * Suma una aparición de cada palabra (las palabras de una pregunta, sin repetir).
+     */
+    void agregar(Collection<String> palabras) {
+        for (String palabra : palabras) {
+            if (frecuencias.containsKey(palabra)) {
+                frecuencias.merge(palabra, 1, Integer::sum);
+                continue;
+            }
+            for (String trigrama : trigramas(palabra)) {
+                trigramas.computeIfAbsent(trigrama, k -> ConcurrentHashMap.newKeySet()).add(palabra);
+            }
+            if (palabra.length() <= LARGO_CORTO + 1) {
+                cortasPorLargo.computeIfAbsent(palabra.length(), k -> ConcurrentHashMap.newKeySet()).add(palabra);
+            }
+            frecuencias.put(palabra, 1);
+        }
+    }
+
+    /**
+     * Resta una aparición de cada palabra; las que ya no aparecen salen del vocabulario.
+     */
+    void quitar(Collection<String> palabras) {
+        for (String palabra : palabras) {
+            Integer restante = frecuencias.computeIfPresent(palabra, (k, n) -> n > 1 ? n - 1 : null);
+            if (restante != null) continue;
+            for (String trigrama : trigramas(palabra)) {
+                trigramas.computeIfPresent(trigrama, (k, conjunto) -> {
+                    conjunto.remove(palabra);
+                    return conjunto.isEmpty() ? null : conjunto;
+                });
+            }
+            cortasPorLargo.computeIfPresent(palabra.length(), (k, conjunto) -> {
+                conjunto.remove(palabra);
+                return conjunto.isEmpty() ? null : conjunto;
+            });
+        }
+    }
+
+    /**
+     * Palabras del vocabulario más cercanas a la dada, de la mejor a la peor: menor distancia
+     * de edición, luego las que aparecen en más preguntas. Vacía si ninguna está a la distancia
+     * permitida (1 hasta 4 letras, 2 desde 5).
+     */
+    List<String> corregir(String palabra, int limite) {
+        int maxDistancia = palabra.length() <= 4 ? 1 : 2;
+        List<String> propios = trigramas(palabra);
+        int minimoComun = propios.size() - 3 * maxDistancia;
+
+        Map<String, Integer> comunes = new HashMap<>();
+        for (String trigrama : propios) {
+            Set<String> conjunto = trigramas.get(trigrama);
+            if (conjunto == null) continue;
+            for (String candidata : conjunto) {
+                comunes.merge(candidata, 1, Integer::sum);
+            }
+        }
+        if (palabra.length() <= LARGO_CORTO) {
+            for (int largo = Math.max(1, palabra.length() - maxDistancia); largo <= palabra.length() + maxDistancia; largo++) {
+                Set<String> conjunto = cortasPorLargo.get(largo);
+                if (conjunto != null) {
+                    conjunto.forEach(candidata -> comunes.putIfAbsent(candidata, 0));
+                }
+            }
+        }
+
+        List<Candidato> candidatos = new ArrayList<>();
+        comunes.forEach((candidata, enComun) -> {
+            if (palabra.length() > LARGO_CORTO && enComun < minimoComun) return;
+            if (Math.abs(candidata.length() - palabra.length()) > maxDistancia) return;
+            int distancia = distancia(palabra, candidata, maxDistancia);
+            Integer frecuencia = frecuencias.get(candidata);
+            if (distancia > 0 && distancia <= maxDistancia && frecuencia != null) {
+                candidatos.add(new Candidato(candidata, distancia, frecuencia));
+            }
+        });
+        candidatos.sort(POR_CERCANIA);
+
+        List<String> resultado = new ArrayList<>(Math.min(limite, candidatos.size()));
+        for (int i = 0; i < candidatos.size() && i < limite; i++) {
+            resultado.add(candidatos.get(i).getPalabra());
+        }
+        return resultado;
+    }
+
+    /**
+     * Trigramas de la palabra con dos marcas de borde a cada lado ("iva" -> $$i, $iv, iva, va$, a$$).
+     */
+    private static List<String> trigramas(String palabra) {
+        String marcada = "" + BORDE + BORDE + palabra + BORDE + BORDE;
+        List<String> resultado = new ArrayList<>(marcada.length() - 2);
+        for (int i = 0; i + 3 <= marcada.length(); i++) {
+            resultado.add(marcada.substring(i, i + 3));
+        }
+        return resultado;
+    }
+
+    /**
+     * Distancia de edición con transposiciones de letras vecinas. Deja de calcular cuando una
+     * fila completa supera el máximo y en ese caso devuelve máximo + 1.
+     */
+    private static int distancia(String a, String b, int maximo) {
+        int[] antepenultima = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(anterior[j] + 1, actual[j - 1] + 1), anterior[j - 1] + costo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    valor = Math.min(valor, antepenultima[j - 2] + 1);
+                }
+                actual[j] = valor;
+                minimoFila = Math.min(minimoFila, valor);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+            int[] libre = antepenultima;
+            antepenultima = anterior;
+            anterior = actual;
+            actual = libre;
+        }
+        return anterior[b.length()];
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Candidato {
+        private final String palabra;
+        private final int distancia;
+        private final int frecuencia;
+    }
+}
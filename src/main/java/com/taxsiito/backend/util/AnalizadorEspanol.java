@@ -0,0 +1,84 @@
+package com.taxsiito.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Análisis de texto en español para búsquedas por relevancia: normaliza con {@link Textos},
+ * descarta palabras vacías y reduce cada palabra a una raíz aproximada, de modo que
+ * "Boletas electrónicas" y "boleta electronica" produzcan los mismos términos.
+ */
+public final class AnalizadorEspanol {
+
+    /**
+     * Palabras vacías frecuentes, ya sin tildes.
+     */
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "algo", "ante", "con", "contra", "cual", "cuales", "cuando", "de", "del", "desde",
+            "donde", "e", "el", "ella", "ellos", "en", "entre", "era", "es", "esa", "ese", "eso", "esta",
+            "este", "esto", "fue", "ha", "hay", "la", "las", "le", "les", "lo", "los", "mas", "me", "mi",
+            "mis", "muy", "ni", "no", "nos", "o", "para", "pero", "por", "que", "quien", "se", "si", "sin",
+            "sobre", "son", "su", "sus", "te", "tu", "tus", "u", "un", "una", "unas", "uno", "unos", "y", "ya", "yo");
+
+    private static final int LARGO_MINIMO_RAIZ = 4;
+
+    private AnalizadorEspanol() {
+    }
+
+    /**
+     * Términos del texto: palabras normalizadas, sin palabras vacías y reducidas a su raíz.
+     */
+    public static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        for (String palabra : palabras(texto)) {
+            terminos.add(raiz(palabra));
+        }
+        return terminos;
+    }
+
+    /**
+     * Palabras normalizadas del texto sin las palabras vacías, antes de reducirlas.
+     */
+    public static List<String> palabras(String texto) {
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : Textos.tokenizar(texto)) {
+            if (!esPalabraVacia(palabra)) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
+    /**
+     * Indica si la palabra (ya normalizada) es una palabra vacía.
+     */
+    public static boolean esPalabraVacia(String palabra) {
+        return PALABRAS_VACIAS.contains(palabra);
+    }
+
+    /**
+     * Reducción liviana de una palabra normalizada: quita el plural ("-es" tras consonante
+     * o "-s") y la vocal final de género. Las palabras cortas y los números no se modifican.
+     */
+    public static String raiz(String palabra) {
+        if (palabra.length() <= LARGO_MINIMO_RAIZ || Character.isDigit(palabra.charAt(palabra.length() - 1))) {
+            return palabra;
+        }
+        String raiz = palabra;
+        if (raiz.endsWith("es") && !esVocal(raiz.charAt(raiz.length() - 3))) {
+            raiz = raiz.substring(0, raiz.length() - 2);
+        } else if (raiz.endsWith("s")) {
+            raiz = raiz.substring(0, raiz.length() - 1);
+        }
+        char ultima = raiz.charAt(raiz.length() - 1);
+        if (raiz.length() > LARGO_MINIMO_RAIZ && (ultima == 'a' || ultima == 'o' || ultima == 'e')) {
+            raiz = raiz.substring(0, raiz.length() - 1);
+        }
+        return raiz;
+    }
+
+    private static boolean esVocal(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
@@ -0,0 +1,87 @@
+package com.taxsiito.backend.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Mapa acotado que descarta la entrada usada hace más tiempo al superar su capacidad.
+ * Todas las operaciones están sincronizadas.
+ */
+public class CacheLRU<K, V> {
+
+    private final LinkedHashMap<K, V> entradas;
+    private long evicciones;
+
+    public CacheLRU(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a 0");
+        }
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > capacidad) {
+                    evicciones++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el valor asociado a la clave, o null si no existe.
+     */
+    public synchronized V obtener(K clave) {
+        return entradas.get(clave);
+    }
+
+    /**
+     * Obtiene el valor asociado a la clave o lo calcula y guarda si no existe.
+     */
+    public synchronized V obtenerOCalcular(K clave, Function<K, V> calcular) {
+        return entradas.computeIfAbsent(clave, calcular);
+    }
+
+    /**
+     * Guarda un valor.
+     */
+    public synchronized void guardar(K clave, V valor) {
+        entradas.put(clave, valor);
+    }
+
+    /**
+     * Elimina la clave solo si sigue asociada al valor dado.
+     */
+    public synchronized void eliminar(K clave, V valor) {
+        entradas.remove(clave, valor);
+    }
+
+    /**
+     * Elimina la clave.
+     */
+    public synchronized void eliminar(K clave) {
+        entradas.remove(clave);
+    }
+
+    /**
+     * Vacía la cache.
+     */
+    public synchronized void limpiar() {
+        entradas.clear();
+    }
+
+    /**
+     * Cantidad de entradas.
+     */
+    public synchronized int tamanio() {
+        return entradas.size();
+    }
+
+    /**
+     * Cantidad de entradas descartadas por capacidad desde la creación de la cache.
+     */
+    public synchronized long getEvicciones() {
+        return evicciones;
+    }
+}
@@ -0,0 +1,48 @@
+package com.taxsiito.backend.util;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica cursores opacos para paginación por clave (keyset).
+ * Un cursor es una lista de valores serializada en Base64 URL-safe.
+ */
+public final class Cursores {
+
+    private static final String SEPARADOR = "|";
+
+    private Cursores() {
+    }
+
+    /**
+     * Codifica los valores dados en un cursor opaco.
+     */
+    public static String codificar(Object... valores) {
+        String plano = String.join(SEPARADOR, Arrays.stream(valores)
+                .map(v -> URLEncoder.encode(String.valueOf(v), StandardCharsets.UTF_8))
+                .toArray(String[]::new));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor y verifica que tenga la cantidad de valores esperada.
+     */
+    public static String[] decodificar(String cursor, int cantidad) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = plano.split("\\" + SEPARADOR, -1);
+            if (partes.length != cantidad) {
+                throw new IllegalArgumentException();
+            }
+            for (int i = 0; i < partes.length; i++) {
+                partes[i] = URLDecoder.decode(partes[i], StandardCharsets.UTF_8);
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.taxsiito.backend.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Escribe DTOs fila por fila en CSV o NDJSON directamente sobre un OutputStream.
+ * En CSV las columnas son los campos simples del DTO (se omiten las colecciones);
+ * en NDJSON cada línea es el DTO completo, igual que en la API.
+ */
+public class EscritorFilas<T> {
+
+    /**
+     * Formatos de exportación soportados.
+     */
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+    private final Formato formato;
+    private final List<String> columnas;
+
+    public EscritorFilas(OutputStream salida, ObjectMapper objectMapper, Formato formato, Class<T> tipo) {
+        this.writer = new OutputStreamWriter(salida, StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper;
+        this.formato = formato;
+        this.columnas = Arrays.stream(tipo.getDeclaredFields())
+                .filter(campo -> !Modifier.isStatic(campo.getModifiers()))
+                .filter(campo -> !Collection.class.isAssignableFrom(campo.getType()))
+                .map(Field::getName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Escribe la cabecera (solo en CSV).
+     */
+    public void escribirCabecera() throws IOException {
+        if (formato == Formato.CSV) {
+            writer.write(String.join(",", columnas));
+            writer.write("\n");
+        }
+    }
+
+    /**
+     * Escribe una fila.
+     */
+    public void escribir(T fila) throws IOException {
+        if (formato == Formato.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(fila));
+        } else {
+            JsonNode nodo = objectMapper.valueToTree(fila);
+            for (int i = 0; i < columnas.size(); i++) {
+                if (i > 0) writer.write(",");
+                JsonNode valor = nodo.get(columnas.get(i));
+                if (valor != null && !valor.isNull()) {
+                    writer.write(escaparCsv(valor.asText()));
+                }
+            }
+        }
+        writer.write("\n");
+    }
+
+    /**
+     * Envía al cliente lo escrito hasta ahora. Si el cliente lee lento, esta llamada
+     * bloquea y frena la lectura de la base de datos.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static String escaparCsv(String valor) {
+        if (valor.contains(",") || valor.contains("\"") || valor.contains("\n") || valor.contains("\r")) {
+            return "\"" + valor.replace("\"", "\"\"") + "\"";
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,136 @@
+package com.taxsiito.backend.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lee registros CSV de a uno desde un Reader, sin cargar el archivo completo.
+ * Acepta campos entre comillas con comas, comillas dobladas ("") y saltos de línea,
+ * el mismo formato que escribe EscritorFilas. Descarta la marca BOM UTF-8 inicial.
+ *
+ * Un campo entre comillas que no se cierra antes del final del archivo (o antes de 64 KB)
+ * invalida solo su registro: se lanza {@link RegistroInvalidoException} y la lectura
+ * continúa en la línea siguiente a la que abrió el registro.
+ */
+public class LectorCsv {
+
+    private static final char BOM = '\uFEFF';
+    // Un registro más largo se considera mal formado (los campos de producto son mucho más cortos)
+    private static final int LARGO_MAX_REGISTRO = 64 * 1024;
+
+    private final Reader reader;
+    private final StringBuilder crudo = new StringBuilder();
+    private String pendiente = "";
+    private int posicionPendiente;
+    private boolean inicio = true;
+
+    public LectorCsv(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Lee el siguiente registro; retorna null al llegar al final.
+     */
+    public List<String> leerRegistro() throws IOException {
+        crudo.setLength(0);
+        int c = leer();
+        if (inicio) {
+            inicio = false;
+            if (c == BOM) {
+                crudo.setLength(0);
+                c = leer();
+            }
+        }
+        if (c == -1) return null;
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        while (true) {
+            if (entreComillas) {
+                if (c == -1 || crudo.length() > LARGO_MAX_REGISTRO) {
+                    descartarPrimeraLinea();
+                    throw new RegistroInvalidoException("Campo entre comillas sin cerrar");
+                }
+                if (c == '"') {
+                    int despues = leer();
+                    if (despues == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        c = despues;
+                        continue;
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.length() == 0) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int despues = leer();
+                    if (despues != '\n') devolver(despues);
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+            c = leer();
+        }
+    }
+
+    /**
+     * Deja para volver a leer todo lo que el registro inválido consumió después de su primera línea.
+     */
+    private void descartarPrimeraLinea() {
+        int finLinea = -1;
+        for (int i = 0; i < crudo.length(); i++) {
+            char c = crudo.charAt(i);
+            if (c == '\n' || c == '\r') {
+                finLinea = i + 1;
+                if (c == '\r' && finLinea < crudo.length() && crudo.charAt(finLinea) == '\n') {
+                    finLinea++;
+                }
+                break;
+            }
+        }
+        String resto = finLinea >= 0 ? crudo.substring(finLinea) : "";
+        pendiente = resto + pendiente.substring(posicionPendiente);
+        posicionPendiente = 0;
+    }
+
+    private void devolver(int c) {
+        if (c == -1) return;
+        crudo.setLength(crudo.length() - 1);
+        pendiente = (char) c + pendiente.substring(posicionPendiente);
+        posicionPendiente = 0;
+    }
+
+    private int leer() throws IOException {
+        int c;
+        if (posicionPendiente < pendiente.length()) {
+            c = pendiente.charAt(posicionPendiente++);
+        } else {
+            c = reader.read();
+        }
+        if (c != -1) {
+            crudo.append((char) c);
+        }
+        return c;
+    }
+
+    /**
+     * Registro CSV mal formado. El lector queda listo para leer el registro siguiente.
+     */
+    public static class RegistroInvalidoException extends IOException {
+        public RegistroInvalidoException(String mensaje) {
+            super(mensaje);
+        }
+    }
+}
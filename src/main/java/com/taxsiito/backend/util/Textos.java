@@ -0,0 +1,42 @@
+package com.taxsiito.backend.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para búsquedas: minúsculas y sin tildes ni diéresis,
+ * de modo que "declaracion" coincida con "Declaración".
+ */
+public final class Textos {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Textos() {
+    }
+
+    /**
+     * Pasa el texto a minúsculas y elimina los acentos. La ñ se conserva como n.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) return "";
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return MARCAS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normaliza el texto y lo divide en palabras (letras y dígitos).
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADORES.split(normalizar(texto))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
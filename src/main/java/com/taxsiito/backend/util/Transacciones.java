@@ -0,0 +1,30 @@
+package com.taxsiito.backend.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para ejecutar acciones según el resultado de la transacción actual.
+ */
+public final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción actual confirme; si no hay transacción, la ejecuta de inmediato.
+     * Se usa para mantener estructuras en memoria sincronizadas solo con cambios confirmados.
+     */
+    public static void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+-- ========================================
+-- Esquema inicial: las tablas que creaba ddl-auto=update antes de usar Flyway.
+-- Las bases creadas así se marcan como versión 1 (spring.flyway.baseline-on-migrate)
+-- sin ejecutar este archivo, por lo que no debe contener nada que no existiera entonces:
+-- las tablas, columnas e índices nuevos van en V2 y siguientes.
+-- ========================================
+
+CREATE TABLE regiones (
+    id bigint NOT NULL AUTO_INCREMENT,
+    nombre varchar(100) NOT NULL,
+    codigo varchar(10),
+    activo bit NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_regiones_nombre UNIQUE (nombre)
+) ENGINE = InnoDB;
+
+CREATE TABLE comunas (
+    id bigint NOT NULL AUTO_INCREMENT,
+    nombre varchar(100) NOT NULL,
+    region_id bigint NOT NULL,
+    activo bit NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_comunas_region FOREIGN KEY (region_id) REFERENCES regiones (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE categorias (
+    id bigint NOT NULL AUTO_INCREMENT,
+    nombre varchar(50) NOT NULL,
+    descripcion varchar(200),
+    activa bit,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categorias_nombre UNIQUE (nombre)
+) ENGINE = InnoDB;
+
+CREATE TABLE productos (
+    id bigint NOT NULL AUTO_INCREMENT,
+    codigo varchar(20) NOT NULL,
+    nombre varchar(100) NOT NULL,
+    descripcion varchar(500),
+    precio decimal(10, 0) NOT NULL,
+    stock integer NOT NULL,
+    stock_critico integer,
+    imagen varchar(255),
+    categoria_id bigint,
+    fecha_creacion datetime(6) NOT NULL,
+    activo bit,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_productos_codigo UNIQUE (codigo),
+    CONSTRAINT fk_productos_categoria FOREIGN KEY (categoria_id) REFERENCES categorias (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE usuarios (
+    id bigint NOT NULL AUTO_INCREMENT,
+    run varchar(12),
+    nombres varchar(50) NOT NULL,
+    apellidos varchar(50) NOT NULL,
+    correo varchar(100) NOT NULL,
+    password varchar(255) NOT NULL,
+    rol enum ('ADMIN', 'VENDEDOR', 'CLIENTE') NOT NULL,
+    direccion varchar(200),
+    region_id bigint,
+    comuna_id bigint,
+    telefono varchar(20),
+    fecha_registro datetime(6) NOT NULL,
+    activo bit,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_usuarios_run UNIQUE (run),
+    CONSTRAINT uk_usuarios_correo UNIQUE (correo),
+    CONSTRAINT fk_usuarios_region FOREIGN KEY (region_id) REFERENCES regiones (id),
+    CONSTRAINT fk_usuarios_comuna FOREIGN KEY (comuna_id) REFERENCES comunas (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE ordenes (
+    id bigint NOT NULL AUTO_INCREMENT,
+    numero_orden varchar(20) NOT NULL,
+    usuario_id bigint NOT NULL,
+    subtotal decimal(12, 0) NOT NULL,
+    descuento decimal(12, 0),
+    total decimal(12, 0) NOT NULL,
+    estado enum ('PENDIENTE', 'PAGADA', 'EN_PREPARACION', 'ENVIADA', 'ENTREGADA', 'CANCELADA') NOT NULL,
+    direccion_envio varchar(200),
+    region_envio varchar(50),
+    comuna_envio varchar(50),
+    notas varchar(500),
+    fecha_creacion datetime(6) NOT NULL,
+    fecha_actualizacion datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ordenes_numero_orden UNIQUE (numero_orden),
+    CONSTRAINT fk_ordenes_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE items_orden (
+    id bigint NOT NULL AUTO_INCREMENT,
+    orden_id bigint NOT NULL,
+    producto_id bigint NOT NULL,
+    nombre_producto varchar(100) NOT NULL,
+    precio_unitario decimal(10, 0) NOT NULL,
+    cantidad integer NOT NULL,
+    subtotal decimal(12, 0) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_items_orden_orden FOREIGN KEY (orden_id) REFERENCES ordenes (id),
+    CONSTRAINT fk_items_orden_producto FOREIGN KEY (producto_id) REFERENCES productos (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE preguntas_frecuentes (
+    id bigint NOT NULL AUTO_INCREMENT,
+    pregunta varchar(300) NOT NULL,
+    respuesta varchar(2000) NOT NULL,
+    categoria_pregunta varchar(50),
+    orden_visualizacion integer,
+    activa bit,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,104 @@
+-- ========================================
+-- Tablas e índices agregados sobre el esquema inicial: numeración de órdenes (secuencias),
+-- ventas agregadas, outbox de eventos, claves de idempotencia e índices del listado de órdenes.
+-- Idempotente: las bases creadas con ddl-auto=update por versiones que ya tenían estas
+-- entidades pueden tener algunas tablas o índices, y en ellas este archivo solo agrega lo que falta.
+-- MySQL no acepta CREATE INDEX IF NOT EXISTS: cada índice se crea solo si information_schema
+-- no lo registra.
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS secuencias (
+    nombre varchar(50) NOT NULL,
+    valor bigint NOT NULL,
+    PRIMARY KEY (nombre)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS ventas_agregadas (
+    id bigint NOT NULL AUTO_INCREMENT,
+    granularidad enum ('HORA', 'DIA') NOT NULL,
+    inicio datetime(6) NOT NULL,
+    cantidad_ordenes bigint NOT NULL,
+    subtotal decimal(14, 0) NOT NULL,
+    descuento decimal(14, 0) NOT NULL,
+    total decimal(14, 0) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ventas_agregadas_bucket UNIQUE (granularidad, inicio)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS eventos_salida (
+    id bigint NOT NULL AUTO_INCREMENT,
+    tipo enum ('ORDEN_CREADA', 'ESTADO_ACTUALIZADO') NOT NULL,
+    orden_id bigint NOT NULL,
+    numero_orden varchar(20),
+    payload varchar(4000) NOT NULL,
+    fecha_creacion datetime(6) NOT NULL,
+    fecha_despacho datetime(6),
+    intentos integer NOT NULL,
+    ultimo_error varchar(500),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS claves_idempotencia (
+    id bigint NOT NULL AUTO_INCREMENT,
+    usuario_id bigint NOT NULL,
+    clave varchar(100) NOT NULL,
+    huella varchar(64) NOT NULL,
+    orden_id bigint,
+    fecha_creacion datetime(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_claves_idempotencia_usuario_clave UNIQUE (usuario_id, clave)
+) ENGINE = InnoDB;
+
+-- OrdenRepository.findBy(spec) sin filtros: paginación por clave (fecha_creacion, id)
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'CREATE INDEX idx_ordenes_fecha ON ordenes (fecha_creacion, id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'ordenes' AND index_name = 'idx_ordenes_fecha');
+PREPARE crear_indice FROM @ddl;
+EXECUTE crear_indice;
+DEALLOCATE PREPARE crear_indice;
+
+-- Listado y historial de órdenes de un usuario
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'CREATE INDEX idx_ordenes_usuario_fecha ON ordenes (usuario_id, fecha_creacion, id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'ordenes' AND index_name = 'idx_ordenes_usuario_fecha');
+PREPARE crear_indice FROM @ddl;
+EXECUTE crear_indice;
+DEALLOCATE PREPARE crear_indice;
+
+-- Listado de órdenes filtrado por estado
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'CREATE INDEX idx_ordenes_estado_fecha ON ordenes (estado, fecha_creacion, id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'ordenes' AND index_name = 'idx_ordenes_estado_fecha');
+PREPARE crear_indice FROM @ddl;
+EXECUTE crear_indice;
+DEALLOCATE PREPARE crear_indice;
+
+-- Listado de órdenes filtrado por región de envío
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'CREATE INDEX idx_ordenes_region_fecha ON ordenes (region_envio, fecha_creacion, id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'ordenes' AND index_name = 'idx_ordenes_region_fecha');
+PREPARE crear_indice FROM @ddl;
+EXECUTE crear_indice;
+DEALLOCATE PREPARE crear_indice;
+
+-- EventoSalidaRepository.bloquearPendientes, eliminarDespachadosAntesDe
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'CREATE INDEX idx_eventos_salida_pendientes ON eventos_salida (fecha_despacho, id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'eventos_salida' AND index_name = 'idx_eventos_salida_pendientes');
+PREPARE crear_indice FROM @ddl;
+EXECUTE crear_indice;
+DEALLOCATE PREPARE crear_indice;
+
+-- ClaveIdempotenciaRepository.eliminarAntesDe
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'CREATE INDEX idx_claves_idempotencia_fecha ON claves_idempotencia (fecha_creacion)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'claves_idempotencia' AND index_name = 'idx_claves_idempotencia_fecha');
+PREPARE crear_indice FROM @ddl;
+EXECUTE crear_indice;
+DEALLOCATE PREPARE crear_indice;
@@ -0,0 +1,29 @@
+-- ========================================
+-- Índices para las rutas de acceso de los repositorios.
+-- Cada índice indica las consultas que atiende.
+-- ========================================
+
+-- ComunaRepository.findByRegionIdAndActivoTrue, findByRegionId, findByRegion
+CREATE INDEX idx_comunas_region_activo ON comunas (region_id, activo);
+
+-- ProductoRepository.findByCategoriaIdAndActivoTrue, findByCategoriaId, countByCategoriaId
+CREATE INDEX idx_productos_categoria_activo ON productos (categoria_id, activo);
+
+-- UsuarioRepository.findByRol, streamParaExportar(rol)
+CREATE INDEX idx_usuarios_rol ON usuarios (rol);
+
+-- OrdenRepository.findResumenVentas (estado = ? AND id > ? ORDER BY id), countByEstado;
+-- InnoDB agrega la clave primaria al final de cada índice secundario
+CREATE INDEX idx_ordenes_estado ON ordenes (estado);
+
+-- ItemOrdenRepository.findByOrdenId, findConProductoByOrdenIdIn, sumarCantidadesPorProducto
+CREATE INDEX idx_items_orden_orden ON items_orden (orden_id);
+
+-- ItemOrdenRepository.findByProductoId, contarVentasPorProducto (cubre la suma de cantidad)
+CREATE INDEX idx_items_orden_producto_cantidad ON items_orden (producto_id, cantidad);
+
+-- PreguntaFrecuenteRepository.findByActivaTrueOrderByOrdenVisualizacionAsc
+CREATE INDEX idx_preguntas_activa_orden ON preguntas_frecuentes (activa, orden_visualizacion);
+
+-- PreguntaFrecuenteRepository.findByCategoriaPreguntaAndActivaTrueOrderByOrdenVisualizacionAsc
+CREATE INDEX idx_preguntas_categoria_activa_orden ON preguntas_frecuentes (categoria_pregunta, activa, orden_visualizacion);
@@ -0,0 +1,9 @@
+-- ========================================
+-- Tablas de archivo de órdenes (ArchivadorOrdenes, OrdenArchivoRepository).
+-- Misma estructura e índices que las tablas activas, sin claves foráneas.
+-- IF NOT EXISTS: versiones anteriores las creaban al iniciar la aplicación.
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS ordenes_archivo LIKE ordenes;
+
+CREATE TABLE IF NOT EXISTS items_orden_archivo LIKE items_orden;
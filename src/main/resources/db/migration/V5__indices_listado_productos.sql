@@ -0,0 +1,18 @@
+-- ========================================
+-- Índices para el listado paginado de productos (ProductoSpecifications):
+-- filtro activo = true, orden por (campo, id) y cursor sobre el mismo par.
+-- ========================================
+
+-- Orden por precio, con o sin rango de precios
+CREATE INDEX idx_productos_activo_precio ON productos (activo, precio, id);
+
+-- Orden por nombre (por defecto)
+CREATE INDEX idx_productos_activo_nombre ON productos (activo, nombre, id);
+
+-- Orden por fecha de creación
+CREATE INDEX idx_productos_activo_fecha ON productos (activo, fecha_creacion, id);
+
+-- Filtro por categoría ordenado por precio. Reemplaza a idx_productos_categoria_activo,
+-- que es su prefijo; se crea antes de borrarlo para que la clave foránea siempre tenga índice
+CREATE INDEX idx_productos_categoria_activo_precio ON productos (categoria_id, activo, precio, id);
+DROP INDEX idx_productos_categoria_activo ON productos;
@@ -0,0 +1,9 @@
+-- ========================================
+-- Outbox de eventos: entrega por destino y descarte tras el máximo de intentos.
+-- ========================================
+
+-- Destinos que ya aceptaron el evento (nombres separados por coma), para no reenviárselo
+ALTER TABLE eventos_salida ADD COLUMN destinos_entregados varchar(200);
+
+-- Evento que un destino rechazó el máximo de veces; ya no se despacha y queda para revisión
+ALTER TABLE eventos_salida ADD COLUMN descartado bit NOT NULL DEFAULT 0;
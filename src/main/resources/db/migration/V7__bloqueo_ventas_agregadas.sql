@@ -0,0 +1,6 @@
+-- ========================================
+-- Fila de bloqueo de las ventas agregadas: VentasAgregadasService la bloquea en modo compartido
+-- al acumular y en modo exclusivo al reconstruir los buckets.
+-- ========================================
+
+INSERT IGNORE INTO secuencias (nombre, valor) VALUES ('ventas_agregadas', 0);
@@ -0,0 +1,100 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.model.Categoria;
+import com.taxsiito.backend.model.Producto;
+import com.taxsiito.backend.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogoServiceTest {
+
+    private final Categoria libros = Categoria.builder().id(1L).nombre("Libros").build();
+    private final Categoria cursos = Categoria.builder().id(2L).nombre("Cursos").build();
+
+    private ProductoRepository productoRepository;
+    private CatalogoService catalogo;
+
+    @BeforeEach
+    void configurar() {
+        productoRepository = mock(ProductoRepository.class);
+        when(productoRepository.findActivosConCategoria()).thenReturn(new ArrayList<>(List.of(
+                producto(1L, "L1", libros, 10),
+                producto(2L, "L2", libros, 10),
+                producto(3L, "C1", cursos, 10))));
+        catalogo = new CatalogoService(productoRepository, List.of());
+        catalogo.asegurarCargado();
+    }
+
+    @AfterEach
+    void cerrar() {
+        catalogo.cerrar();
+    }
+
+    @Test
+    void unCambioDeStockSeReleeYNoSeSumaDosVeces() {
+        when(productoRepository.findStockByIdIn(anyCollection())).thenReturn(List.<Object[]>of(new Object[]{1L, 7}));
+        CatalogoService.Instantanea antes = catalogo.obtener();
+
+        // El mismo cambio informado dos veces deja el stock confirmado, no lo descuenta dos veces
+        catalogo.alModificarCatalogo(CatalogoModificadoEvent.stock(List.of(1L)));
+        catalogo.alModificarCatalogo(CatalogoModificadoEvent.stock(List.of(1L)));
+        catalogo.procesarPendientes();
+
+        CatalogoService.Instantanea despues = catalogo.obtener();
+        assertThat(despues.obtenerPorId(1L)).map(ProductoDTO::getStock).contains(7);
+        assertThat(despues.obtenerPorCodigo("L1")).map(ProductoDTO::getStock).contains(7);
+        assertThat(despues.obtenerPorCategoria(1L)).extracting(ProductoDTO::getStock).containsExactly(7, 10);
+        assertThat(despues.getVersion()).isNotEqualTo(antes.getVersion());
+        // La instantánea anterior no cambia
+        assertThat(antes.obtenerPorId(1L)).map(ProductoDTO::getStock).contains(10);
+    }
+
+    @Test
+    void unProductoQueCambiaDeCategoriaYCodigoSeMueveEnTodosLosIndices() {
+        when(productoRepository.findConCategoriaByIdIn(anyCollection()))
+                .thenReturn(List.of(producto(2L, "C2", cursos, 10)));
+
+        catalogo.alModificarCatalogo(CatalogoModificadoEvent.productos(List.of(2L)));
+        catalogo.procesarPendientes();
+
+        CatalogoService.Instantanea actual = catalogo.obtener();
+        assertThat(actual.obtenerPorCategoria(1L)).extracting(ProductoDTO::getId).containsExactly(1L);
+        assertThat(actual.obtenerPorCategoria(2L)).extracting(ProductoDTO::getId).containsExactly(2L, 3L);
+        assertThat(actual.obtenerPorCodigo("L2")).isEmpty();
+        assertThat(actual.obtenerPorCodigo("C2")).map(ProductoDTO::getId).contains(2L);
+        assertThat(actual.getActivos()).extracting(ProductoDTO::getId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void unProductoDesactivadoSaleDeTodosLosIndices() {
+        Producto inactivo = producto(3L, "C1", cursos, 10);
+        inactivo.setActivo(false);
+        when(productoRepository.findConCategoriaByIdIn(anyCollection())).thenReturn(List.of(inactivo));
+
+        catalogo.alModificarCatalogo(CatalogoModificadoEvent.productos(List.of(3L)));
+        catalogo.procesarPendientes();
+
+        CatalogoService.Instantanea actual = catalogo.obtener();
+        assertThat(actual.obtenerPorId(3L)).isEmpty();
+        assertThat(actual.obtenerPorCodigo("C1")).isEmpty();
+        assertThat(actual.obtenerPorCategoria(2L)).isEmpty();
+        assertThat(actual.getActivos()).extracting(ProductoDTO::getId).containsExactly(1L, 2L);
+    }
+
+    private static Producto producto(Long id, String codigo, Categoria categoria, int stock) {
+        return Producto.builder()
+                .id(id).codigo(codigo).nombre("Producto " + codigo).precio(BigDecimal.valueOf(1000))
+                .stock(stock).categoria(categoria)
+                .build();
+    }
+}
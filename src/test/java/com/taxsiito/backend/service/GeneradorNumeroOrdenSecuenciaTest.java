@@ -0,0 +1,70 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.repository.SecuenciaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeneradorNumeroOrdenSecuenciaTest {
+
+    private static final long TAMANIO_BLOQUE = 100;
+
+    /** Valor de la secuencia en la "base de datos", compartido por todas las instancias. */
+    private final AtomicLong valor = new AtomicLong();
+    private final ThreadLocal<Long> ultimoValor = new ThreadLocal<>();
+
+    private SecuenciaRepository secuenciaRepository;
+
+    @BeforeEach
+    void configurar() {
+        secuenciaRepository = mock(SecuenciaRepository.class);
+        when(secuenciaRepository.avanzar(anyString(), anyLong())).thenAnswer(invocacion -> {
+            ultimoValor.set(valor.addAndGet(invocacion.getArgument(1)));
+            return 1;
+        });
+        when(secuenciaRepository.ultimoValor()).thenAnswer(invocacion -> ultimoValor.get());
+    }
+
+    @Test
+    void elPrimerNumeroReservaUnBloque() {
+        GeneradorNumeroOrdenSecuencia generador = nuevoGenerador();
+
+        assertThat(generador.siguiente()).isEqualTo("ORD-000000000001");
+        verify(secuenciaRepository, times(1)).avanzar(anyString(), anyLong());
+    }
+
+    @Test
+    void unReinicioNoRepiteNumeros() {
+        String antes = nuevoGenerador().siguiente();
+        String despues = nuevoGenerador().siguiente();
+
+        assertThat(despues).isNotEqualTo(antes);
+        assertThat(despues).isEqualTo("ORD-000000000101");
+    }
+
+    @Test
+    void generaNumerosUnicosEntreHilosEInstancias() throws Exception {
+        List<GeneradorNumeroOrdenSecuencia> instancias = List.of(nuevoGenerador(), nuevoGenerador());
+
+        Set<String> numeros = GeneradorNumeroOrdenSnowflakeTest.generarEnParalelo(instancias);
+
+        assertThat(numeros).hasSize(16 * 20_000);
+        assertThat(numeros).allSatisfy(numero -> assertThat(numero).hasSizeLessThanOrEqualTo(20));
+        assertThat(numeros).doesNotContain("ORD-000000000000");
+    }
+
+    private GeneradorNumeroOrdenSecuencia nuevoGenerador() {
+        return new GeneradorNumeroOrdenSecuencia(secuenciaRepository, mock(PlatformTransactionManager.class), TAMANIO_BLOQUE);
+    }
+}
@@ -0,0 +1,83 @@
+package com.taxsiito.backend.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeneradorNumeroOrdenSnowflakeTest {
+
+    private static final int HILOS = 16;
+    private static final int POR_HILO = 20_000;
+
+    @Test
+    void generaNumerosUnicosEntreHilos() throws Exception {
+        GeneradorNumeroOrdenSnowflake generador = new GeneradorNumeroOrdenSnowflake(7);
+
+        Set<String> numeros = generarEnParalelo(List.of(generador));
+
+        assertThat(numeros).hasSize(HILOS * POR_HILO);
+        assertThat(numeros).allSatisfy(numero -> {
+            assertThat(numero).hasSizeLessThanOrEqualTo(20);
+            assertThat(numero).startsWith("ORD-");
+        });
+    }
+
+    @Test
+    void nodosDistintosNoColisionan() throws Exception {
+        List<GeneradorNumeroOrden> generadores = List.of(
+                new GeneradorNumeroOrdenSnowflake(0),
+                new GeneradorNumeroOrdenSnowflake(1),
+                new GeneradorNumeroOrdenSnowflake(GeneradorNumeroOrdenSnowflake.MAX_NODO));
+
+        Set<String> numeros = generarEnParalelo(generadores);
+
+        assertThat(numeros).hasSize(HILOS * POR_HILO);
+    }
+
+    @Test
+    void rechazaNodoFueraDeRango() {
+        assertThatThrownBy(() -> new GeneradorNumeroOrdenSnowflake(GeneradorNumeroOrdenSnowflake.MAX_NODO + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GeneradorNumeroOrdenSnowflake(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Reparte los hilos entre los generadores dados y devuelve todos los números distintos.
+     */
+    static Set<String> generarEnParalelo(List<? extends GeneradorNumeroOrden> generadores) throws Exception {
+        Set<String> numeros = ConcurrentHashMap.newKeySet();
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                GeneradorNumeroOrden generador = generadores.get(i % generadores.size());
+                tareas.add(hilos.submit(() -> {
+                    inicio.await();
+                    for (int j = 0; j < POR_HILO; j++) {
+                        numeros.add(generador.siguiente());
+                    }
+                    return null;
+                }));
+            }
+            inicio.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        return numeros;
+    }
+}
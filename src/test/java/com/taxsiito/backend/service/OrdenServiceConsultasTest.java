@@ -0,0 +1,132 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.FiltroOrdenes;
+import com.taxsiito.backend.dto.OrdenDTO;
+import com.taxsiito.backend.dto.PaginaDTO;
+import com.taxsiito.backend.model.ItemOrden;
+import com.taxsiito.backend.model.Orden;
+import com.taxsiito.backend.model.Producto;
+import com.taxsiito.backend.model.Usuario;
+import com.taxsiito.backend.repository.OrdenArchivoRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que listar órdenes cuesta un número fijo de sentencias SQL sin importar
+ * el tamaño de la página: una para las órdenes con su usuario y otra para los items con su producto.
+ */
+@DataJpaTest
+@Import(OrdenService.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrdenServiceConsultasTest {
+
+    private static final int ORDENES = 60;
+    private static final long SENTENCIAS_POR_PAGINA = 2;
+
+    @Autowired
+    private OrdenService ordenService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean private StockService stockService;
+    @MockBean private GeneradorNumeroOrden generadorNumeroOrden;
+    @MockBean private EstadisticasOrdenesService estadisticasService;
+    @MockBean private VentasAgregadasService ventasService;
+    @MockBean private RankingVentasService rankingService;
+    @MockBean private EventosOrdenService eventosService;
+    @MockBean private HistorialOrdenesCache historialCache;
+    @MockBean private OrdenArchivoRepository ordenArchivoRepository;
+
+    private Statistics estadisticas;
+    private Usuario usuario;
+
+    @BeforeEach
+    void crearDatos() {
+        usuario = Usuario.builder()
+                .nombres("Ana").apellidos("Rojas").correo("ana@taxsiito.cl").password("secreta")
+                .build();
+        entityManager.persist(usuario);
+
+        Producto[] productos = new Producto[3];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = Producto.builder()
+                    .codigo("P" + i).nombre("Producto " + i).precio(BigDecimal.valueOf(1000)).stock(100)
+                    .build();
+            entityManager.persist(productos[i]);
+        }
+
+        LocalDateTime inicio = LocalDateTime.now().minusDays(ORDENES);
+        for (int i = 0; i < ORDENES; i++) {
+            Orden orden = Orden.builder()
+                    .numeroOrden("ORD-" + i).usuario(usuario)
+                    .subtotal(BigDecimal.valueOf(2000)).total(BigDecimal.valueOf(2000))
+                    .fechaCreacion(inicio.plusDays(i))
+                    .build();
+            entityManager.persist(orden);
+            for (int j = 0; j < 2; j++) {
+                Producto producto = productos[(i + j) % productos.length];
+                entityManager.persist(ItemOrden.builder()
+                        .orden(orden).producto(producto).nombreProducto(producto.getNombre())
+                        .precioUnitario(producto.getPrecio()).cantidad(1).subtotal(producto.getPrecio())
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        estadisticas = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void obtenerTodasUsaLasMismasSentenciasConCualquierTamanio() {
+        long conUna = sentencias(() -> ordenService.obtenerTodas(new FiltroOrdenes(), null, 1), 1);
+        long conCincuenta = sentencias(() -> ordenService.obtenerTodas(new FiltroOrdenes(), null, 50), 50);
+
+        assertThat(conUna).isEqualTo(SENTENCIAS_POR_PAGINA);
+        assertThat(conCincuenta).isEqualTo(SENTENCIAS_POR_PAGINA);
+    }
+
+    @Test
+    void obtenerPorUsuarioUsaLasMismasSentenciasConCualquierTamanio() {
+        long conUna = sentencias(() -> ordenService.obtenerPorUsuario(usuario.getId(), new FiltroOrdenes(), null, 1), 1);
+        long conCincuenta = sentencias(() -> ordenService.obtenerPorUsuario(usuario.getId(), new FiltroOrdenes(), null, 50), 50);
+
+        assertThat(conUna).isEqualTo(SENTENCIAS_POR_PAGINA);
+        assertThat(conCincuenta).isEqualTo(SENTENCIAS_POR_PAGINA);
+    }
+
+    /**
+     * Cuenta las sentencias preparadas al obtener la página y recorrer todos sus datos.
+     */
+    private long sentencias(Supplier<PaginaDTO<OrdenDTO>> consulta, int tamanioEsperado) {
+        entityManager.clear();
+        estadisticas.clear();
+
+        PaginaDTO<OrdenDTO> pagina = consulta.get();
+
+        assertThat(pagina.getItems()).hasSize(tamanioEsperado);
+        assertThat(pagina.getItems()).allSatisfy(orden -> {
+            assertThat(orden.getUsuarioCorreo()).isEqualTo("ana@taxsiito.cl");
+            assertThat(orden.getItems()).hasSize(2).allSatisfy(item -> assertThat(item.getProductoId()).isNotNull());
+        });
+        return estadisticas.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,133 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.dto.SugerenciaProductoDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mide el costo de {@link SugerenciasProductos#sugerir} y la memoria de sus claves.
+ *
+ * Mide tiempos, así que no corre en la suite normal: se activa con
+ * {@code mvn test -Dtest=SugerenciasProductosRendimientoTest -Drendimiento=true -DargLine=-Xmx3g}
+ * (la prueba de 1.000.000 de productos necesita unos 2 GB de heap).
+ * Resultado de referencia (JDK 17, un núcleo, productos de 4 palabras):
+ * <ul>
+ *   <li>10.000 productos: carga 0,6 s, media 8 µs y p99 33 µs por consulta, 643 bytes por producto.</li>
+ *   <li>1.000.000 de productos: carga 37 s, media 1,7 µs y p99 3,3 µs por consulta, 656 bytes por producto.</li>
+ * </ul>
+ * La consulta no crece con el catálogo. La memoria sí: unos 650 MB con 1.000.000 de productos,
+ * sin contar los ProductoDTO que ya guarda el catálogo. Cerca de la mitad corresponde a las
+ * claves de sufijo de palabra (3 por producto, además de las del nombre y el código).
+ */
+@EnabledIfSystemProperty(named = "rendimiento", matches = "true")
+@Slf4j
+class SugerenciasProductosRendimientoTest {
+
+    private static final String[] PALABRAS = {
+            "formulario", "declaracion", "renta", "anual", "boleta", "honorarios", "factura", "electronica",
+            "libro", "compras", "ventas", "guia", "despacho", "timbraje", "certificado", "digital",
+            "asesoria", "tributaria", "contable", "remuneraciones", "iva", "mensual", "pyme", "balance",
+            "inicio", "actividades", "termino", "giro", "credito", "fiscal", "retencion", "impuesto"
+    };
+    private static final int CONSULTAS = 20_000;
+    private static final int LIMITE = 10;
+    // Cota holgada para no fallar en máquinas lentas; el valor típico es de pocos microsegundos
+    private static final long MAXIMO_MEDIO_NANOS = 200_000;
+
+    @Test
+    void sugerirCon10MilProductos() {
+        medir(10_000);
+    }
+
+    @Test
+    void sugerirConUnMillonDeProductos() {
+        medir(1_000_000);
+    }
+
+    private static void medir(int cantidad) {
+        List<ProductoDTO> productos = generarProductos(cantidad);
+        SugerenciasProductos sugerencias = new SugerenciasProductos();
+
+        long memoriaAntes = memoriaUsada();
+        long inicioCarga = System.nanoTime();
+        sugerencias.alRecargar(productos);
+        long cargaMs = (System.nanoTime() - inicioCarga) / 1_000_000;
+        long bytesPorProducto = (memoriaUsada() - memoriaAntes) / cantidad;
+
+        List<String> consultas = generarConsultas();
+        // Calentamiento para que el JIT compile la ruta de consulta
+        for (String consulta : consultas) {
+            sugerencias.sugerir(consulta, LIMITE);
+        }
+
+        long[] tiempos = new long[consultas.size()];
+        int encontradas = 0;
+        for (int i = 0; i < consultas.size(); i++) {
+            long inicio = System.nanoTime();
+            List<SugerenciaProductoDTO> resultado = sugerencias.sugerir(consultas.get(i), LIMITE);
+            tiempos[i] = System.nanoTime() - inicio;
+            encontradas += resultado.size();
+        }
+        Arrays.sort(tiempos);
+        long medio = Arrays.stream(tiempos).sum() / tiempos.length;
+        long p99 = tiempos[(int) (tiempos.length * 0.99)];
+
+        log.info("sugerir con {} productos: carga {} ms, {} bytes/producto, media {} ns, p99 {} ns",
+                cantidad, cargaMs, bytesPorProducto, medio, p99);
+
+        assertThat(encontradas).isPositive();
+        assertThat(medio).isLessThan(MAXIMO_MEDIO_NANOS);
+        // Sin mantener la referencia hasta aquí, el GC podría liberar el índice antes de medir la memoria
+        assertThat(sugerencias.sugerir(PALABRAS[0], 1)).hasSize(1);
+    }
+
+    private static List<ProductoDTO> generarProductos(int cantidad) {
+        Random azar = new Random(42);
+        List<ProductoDTO> productos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            String nombre = PALABRAS[azar.nextInt(PALABRAS.length)] + " " + PALABRAS[azar.nextInt(PALABRAS.length)]
+                    + " " + PALABRAS[azar.nextInt(PALABRAS.length)] + " " + i;
+            productos.add(ProductoDTO.builder()
+                    .id((long) i)
+                    .codigo(String.format("P%08d", i))
+                    .nombre(nombre)
+                    .precio(BigDecimal.valueOf(1000))
+                    .stock(10)
+                    .activo(true)
+                    .build());
+        }
+        return productos;
+    }
+
+    /** Prefijos de 1 a 4 letras de palabras del vocabulario, y algunos códigos. */
+    private static List<String> generarConsultas() {
+        Random azar = new Random(7);
+        List<String> consultas = new ArrayList<>(CONSULTAS);
+        for (int i = 0; i < CONSULTAS; i++) {
+            if (i % 10 == 0) {
+                consultas.add(String.format("P%05d", azar.nextInt(100_000)));
+            } else {
+                String palabra = PALABRAS[azar.nextInt(PALABRAS.length)];
+                consultas.add(palabra.substring(0, Math.min(palabra.length(), 1 + azar.nextInt(4))));
+            }
+        }
+        return consultas;
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,77 @@
+package com.taxsiito.backend.service;
+
+import com.taxsiito.backend.dto.ProductoDTO;
+import com.taxsiito.backend.dto.SugerenciaProductoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SugerenciasProductosTest {
+
+    private SugerenciasProductos sugerencias;
+
+    @BeforeEach
+    void cargar() {
+        sugerencias = new SugerenciasProductos();
+        sugerencias.alRecargar(List.of(
+                producto(1L, "F22", "Declaración de Renta"),
+                producto(2L, "BH-01", "Boleta de honorarios"),
+                producto(3L, "LC-01", "Libro de boletas"),
+                producto(4L, "BOL-4", "Certificado digital")));
+    }
+
+    @Test
+    void ignoraTildesYMayusculas() {
+        assertThat(ids(sugerencias.sugerir("declaracion", 10))).containsExactly(1L);
+        assertThat(ids(sugerencias.sugerir("DECLARACIÓN de", 10))).containsExactly(1L);
+        assertThat(ids(sugerencias.sugerir("Ren", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void sugiereNombreYCodigoAntesQueOtrasPalabras() {
+        List<Long> ids = ids(sugerencias.sugerir("bol", 10));
+
+        // Nombre o código que empieza con el prefijo, luego otra palabra del nombre
+        assertThat(ids).hasSize(3);
+        assertThat(ids.subList(0, 2)).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(ids.get(2)).isEqualTo(3L);
+        assertThat(ids(sugerencias.sugerir("bol", 2))).containsExactlyInAnyOrder(2L, 4L);
+    }
+
+    @Test
+    void noRepiteUnProductoQueCoincidePorVariasClaves() {
+        sugerencias.alRecargar(List.of(producto(5L, "RENTA", "Renta renta anual")));
+
+        List<SugerenciaProductoDTO> resultado = sugerencias.sugerir("renta", 10);
+
+        assertThat(resultado).hasSize(1);
+        assertThat(resultado.get(0).getCodigo()).isEqualTo("RENTA");
+    }
+
+    @Test
+    void alActualizarReemplazaLasClavesYQuitaLosDesactivados() {
+        sugerencias.alActualizar(Set.of(1L, 3L), List.of(producto(1L, "F29", "Declaración mensual de IVA")));
+
+        assertThat(sugerencias.sugerir("renta", 10)).isEmpty();
+        assertThat(sugerencias.sugerir("mensual", 10))
+                .extracting(SugerenciaProductoDTO::getNombre).containsExactly("Declaración mensual de IVA");
+        assertThat(ids(sugerencias.sugerir("f29", 10))).containsExactly(1L);
+        assertThat(ids(sugerencias.sugerir("libro", 10))).isEmpty();
+        assertThat(ids(sugerencias.sugerir("bol", 10))).containsExactlyInAnyOrder(2L, 4L);
+    }
+
+    private static List<Long> ids(List<SugerenciaProductoDTO> resultado) {
+        return resultado.stream().map(SugerenciaProductoDTO::getId).collect(Collectors.toList());
+    }
+
+    private static ProductoDTO producto(Long id, String codigo, String nombre) {
+        return ProductoDTO.builder()
+                .id(id).codigo(codigo).nombre(nombre).precio(BigDecimal.valueOf(1000)).stock(10).activo(true)
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.taxsiito.backend.util;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LectorCsvTest {
+
+    @Test
+    void leeCamposEntreComillasConComasYSaltosDeLinea() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader("codigo,nombre\r\nA1,\"Taza, \"\"grande\"\"\nazul\"\r\n"));
+
+        assertThat(lector.leerRegistro()).containsExactly("codigo", "nombre");
+        assertThat(lector.leerRegistro()).containsExactly("A1", "Taza, \"grande\"\nazul");
+        assertThat(lector.leerRegistro()).isNull();
+    }
+
+    @Test
+    void descartaLaMarcaBom() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader("\uFEFFcodigo,nombre\nA1,Taza\n"));
+
+        assertThat(lector.leerRegistro()).containsExactly("codigo", "nombre");
+        assertThat(lector.leerRegistro()).containsExactly("A1", "Taza");
+    }
+
+    @Test
+    void unaComillaSinCerrarInvalidaSoloSuRegistro() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader("A1,\"Taza\nA2,Plato\nA3,Vaso\n"));
+
+        assertThatThrownBy(lector::leerRegistro).isInstanceOf(LectorCsv.RegistroInvalidoException.class);
+        assertThat(lector.leerRegistro()).containsExactly("A2", "Plato");
+        assertThat(lector.leerRegistro()).containsExactly("A3", "Vaso");
+        assertThat(lector.leerRegistro()).isNull();
+    }
+}